@@ -3,6 +3,7 @@ plugins {
     id("jacoco")
     id("application")
     id("org.openjfx.javafxplugin") version "0.1.0"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "org.example"
@@ -18,6 +19,17 @@ java {
     }
 }
 
+// Foreign Function & Memory API (domain.structures.OffHeapWalls) в Java 21 - preview
+tasks.withType<JavaCompile>().configureEach {
+    options.compilerArgs.add("--enable-preview")
+}
+tasks.withType<Test>().configureEach {
+    jvmArgs("--enable-preview")
+}
+tasks.withType<JavaExec>().configureEach {
+    jvmArgs("--enable-preview")
+}
+
 tasks.jacocoTestReport {
     reports {
         html.required.set(true)
@@ -31,6 +43,7 @@ javafx {
 
 application {
     mainClass.set("view.MazeApplication")
+    applicationDefaultJvmArgs = listOf("--enable-preview")
 }
 
 dependencies {
@@ -47,4 +60,25 @@ dependencies {
 tasks.test {
     useJUnitPlatform()
     finalizedBy(tasks.jacocoTestReport)
-}
\ No newline at end of file
+}
+tasks.register<JavaExec>("mazeServer") {
+    description = "Starts the headless maze HTTP server on the loopback address."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("server.MazeServer")
+    (project.findProperty("port") as String?)?.let { args(it) }
+}
+
+// Запуск: gradle jmh, один класс - gradle jmh -PjmhIncludes=GenerationBenchmark
+jmh {
+    jmhVersion.set("1.37")
+    includeTests.set(false)
+    benchmarkMode.set(listOf("thrpt", "avgt"))
+    timeUnit.set("ms")
+    profilers.set(listOf("gc"))
+    fork.set(1)
+    warmupIterations.set(2)
+    iterations.set(3)
+    resultFormat.set("JSON")
+    jvmArgsAppend.set(listOf("--enable-preview"))
+    (project.findProperty("jmhIncludes") as String?)?.let { includes.set(listOf(it)) }
+}
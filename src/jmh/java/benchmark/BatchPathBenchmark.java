@@ -0,0 +1,53 @@
+package benchmark;
+
+import domain.algorithm.BatchPathSolver;
+import domain.algorithm.PerfectMazeDFS;
+import domain.algorithm.PerfectMazeGenerator;
+import domain.model.PerfectMaze;
+import domain.model.StorageBackend;
+import java.util.SplittableRandom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Пачка из <code>queries</code> случайных запросов в лабиринте 1000 x 1000: через
+ * {@link BatchPathSolver} против такого же количества отдельных вызовов
+ * {@link PerfectMazeDFS#findPathIndices}. Решатели создаются на каждый вызов, как у
+ * пользователя с новой пачкой
+ */
+@State(Scope.Benchmark)
+public class BatchPathBenchmark {
+  private static final int SIDE = 1000;
+
+  @Param({"10", "100", "1000"})
+  public int queries;
+
+  private PerfectMaze maze;
+  private int[] starts;
+  private int[] ends;
+
+  @Setup
+  public void setUp() {
+    maze = new PerfectMazeGenerator(SIDE, SIDE, StorageBackend.LARGE, 1).create();
+    SplittableRandom random = new SplittableRandom(queries);
+    starts = random.ints(queries, 0, SIDE * SIDE).toArray();
+    ends = random.ints(queries, 0, SIDE * SIDE).toArray();
+  }
+
+  @Benchmark
+  public int[][] batch() {
+    return new BatchPathSolver(maze).findPathsIndices(starts, ends);
+  }
+
+  @Benchmark
+  public void separate(Blackhole blackhole) {
+    PerfectMazeDFS dfs = new PerfectMazeDFS(maze);
+    for (int i = 0; i < queries; i++) {
+      blackhole.consume(dfs.findPathIndices(starts[i], ends[i]));
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package benchmark;
+
+import domain.algorithm.PerfectMazeGenerator;
+import domain.model.PerfectMaze;
+import domain.model.StorageBackend;
+import domain.util.Converter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Сохранение и загрузка лабиринта во всех форматах {@link Converter}: текстовом, двоичном и
+ * сжатом архиве. Файлы создаются во временном каталоге и удаляются после замера. Текстовый файл
+ * лабиринта 10000 x 10000 занимает около 400 МБ
+ */
+@State(Scope.Benchmark)
+public class ConverterBenchmark {
+  @Param({"50", "1000", "10000"})
+  public int side;
+
+  private PerfectMaze maze;
+  private Path directory;
+  private Path text;
+  private Path binary;
+  private Path archive;
+
+  @Setup
+  public void setUp() throws IOException {
+    maze = new PerfectMazeGenerator(side, side, StorageBackend.LARGE, 1).create();
+    directory = Files.createTempDirectory("maze-benchmark");
+    text = directory.resolve("maze" + Converter.TEXT_EXTENSION);
+    binary = directory.resolve("maze" + Converter.BINARY_EXTENSION);
+    archive = directory.resolve("maze" + Converter.ARCHIVE_EXTENSION);
+    Converter.saveMaze(maze, text.toString());
+    Converter.saveMaze(maze, binary.toString());
+    Converter.saveMaze(maze, archive.toString());
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(text);
+    Files.deleteIfExists(binary);
+    Files.deleteIfExists(archive);
+    Files.deleteIfExists(directory);
+  }
+
+  @Benchmark
+  public Path saveText() throws IOException {
+    Converter.saveMaze(maze, text.toString());
+    return text;
+  }
+
+  @Benchmark
+  public PerfectMaze loadText() throws IOException {
+    return Converter.loadMaze(text.toFile());
+  }
+
+  @Benchmark
+  public Path saveBinary() throws IOException {
+    Converter.saveMaze(maze, binary.toString());
+    return binary;
+  }
+
+  /**
+   * Загрузка с проверкой контрольной суммы: она один раз читает все отображенные страницы
+   */
+  @Benchmark
+  public PerfectMaze loadBinary() throws IOException {
+    return Converter.loadMaze(binary.toFile());
+  }
+
+  @Benchmark
+  public Path saveArchive() throws IOException {
+    Converter.saveMaze(maze, archive.toString());
+    return archive;
+  }
+
+  @Benchmark
+  public PerfectMaze loadArchive() throws IOException {
+    return Converter.loadMaze(archive.toFile());
+  }
+}
@@ -0,0 +1,37 @@
+package benchmark;
+
+import domain.algorithm.GenerationAlgorithm;
+import domain.algorithm.MazeGenerator;
+import domain.model.PerfectMaze;
+import domain.model.StorageBackend;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Сравнение алгоритмов генерации ({@link GenerationAlgorithm}) на квадратном лабиринте со
+ * стороной <code>side</code> (одна операция - один лабиринт). Генератор создается один раз и
+ * переиспользуется, поэтому в замер входят хранилище стен и рабочие массивы алгоритма
+ */
+@State(Scope.Benchmark)
+public class GenerationAlgorithmBenchmark {
+  @Param({"1000"})
+  public int side;
+
+  @Param({"ELLER", "BINARY_TREE", "SIDEWINDER", "KRUSKAL", "WILSON", "RECURSIVE_BACKTRACKER"})
+  public GenerationAlgorithm algorithm;
+
+  private MazeGenerator generator;
+
+  @Setup
+  public void setUp() {
+    generator = algorithm.create(side, side, StorageBackend.LARGE, 1);
+  }
+
+  @Benchmark
+  public PerfectMaze create() {
+    return generator.create();
+  }
+}
@@ -0,0 +1,23 @@
+package benchmark;
+
+import domain.algorithm.PerfectMazeGenerator;
+import domain.model.PerfectMaze;
+import domain.model.StorageBackend;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Генерация квадратного лабиринта со стороной <code>side</code> (одна операция - один лабиринт)
+ */
+@State(Scope.Benchmark)
+public class GenerationBenchmark {
+  @Param({"50", "1000", "10000"})
+  public int side;
+
+  @Benchmark
+  public PerfectMaze create() {
+    return new PerfectMazeGenerator(side, side, StorageBackend.LARGE).create();
+  }
+}
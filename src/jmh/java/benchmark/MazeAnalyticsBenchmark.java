@@ -0,0 +1,36 @@
+package benchmark;
+
+import domain.algorithm.MazeAnalytics;
+import domain.algorithm.PerfectMazeGenerator;
+import domain.model.PerfectMaze;
+import domain.model.StorageBackend;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Полный расчет характеристик лабиринта: диаметр, эксцентриситеты всех ячеек и степени.
+ * Параллельные проходы по строкам сравниваются с последовательными
+ */
+@State(Scope.Benchmark)
+public class MazeAnalyticsBenchmark {
+  @Param({"50", "1000", "3000"})
+  public int side;
+
+  @Param({"false", "true"})
+  public boolean parallel;
+
+  private PerfectMaze maze;
+
+  @Setup
+  public void setUp() {
+    maze = new PerfectMazeGenerator(side, side, StorageBackend.LARGE, 1).create();
+  }
+
+  @Benchmark
+  public MazeAnalytics analyze() {
+    return MazeAnalytics.analyze(maze, parallel);
+  }
+}
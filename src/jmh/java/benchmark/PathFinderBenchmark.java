@@ -0,0 +1,39 @@
+package benchmark;
+
+import domain.algorithm.PerfectMazeDFS;
+import domain.algorithm.PerfectMazeGenerator;
+import domain.model.StorageBackend;
+import java.awt.Point;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Поиск пути между противоположными углами лабиринта. Лабиринт и решатель создаются один раз, так
+ * что замеряются повторные запросы с переиспользуемыми рабочими массивами
+ */
+@State(Scope.Benchmark)
+public class PathFinderBenchmark {
+  @Param({"50", "1000", "10000"})
+  public int side;
+
+  private PerfectMazeDFS dfs;
+  private Point start;
+  private Point end;
+
+  @Setup
+  public void setUp() {
+    PerfectMazeGenerator generator = new PerfectMazeGenerator(side, side, StorageBackend.LARGE, 1);
+    dfs = new PerfectMazeDFS(generator.create());
+    start = new Point(0, 0);
+    end = new Point(side - 1, side - 1);
+  }
+
+  @Benchmark
+  public List<Point> findPath() {
+    return dfs.findPath(start, end);
+  }
+}
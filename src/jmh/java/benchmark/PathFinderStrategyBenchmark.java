@@ -0,0 +1,97 @@
+package benchmark;
+
+import domain.algorithm.PathFinder;
+import domain.algorithm.PathFinderStrategy;
+import domain.algorithm.PerfectMazeGenerator;
+import domain.metrics.MazeMetrics;
+import domain.metrics.Metrics;
+import domain.model.StorageBackend;
+import java.util.SplittableRandom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Сравнение алгоритмов поиска пути ({@link PathFinderStrategy}) на близких и далеких точках.
+ * Запросы - {@link #QUERIES} случайных пар ячеек, которые перебираются по кругу:
+ * <code>near</code> - не дальше 10 шагов друг от друга по прямой (путь по коридорам может быть
+ * длиннее), <code>far</code> - не ближе <code>side</code> шагов. Пары случайные, а не углы
+ * лабиринта, потому что DFS перебирает направления в фиксированном порядке и на некоторых
+ * углах случайно находит путь сразу<br><br>
+ *
+ * Кроме времени после каждой итерации печатается среднее количество посещенных ячеек на запрос,
+ * собранное через {@link MazeMetrics}. Метрики включены во всех вариантах одинаково
+ */
+@State(Scope.Benchmark)
+public class PathFinderStrategyBenchmark {
+  @Param({"1000"})
+  public int side;
+
+  @Param({"DFS", "BIDIRECTIONAL_BFS", "A_STAR"})
+  public PathFinderStrategy strategy;
+
+  @Param({"near", "far"})
+  public String distance;
+
+  private static final int QUERIES = 64;
+
+  private PathFinder finder;
+  private final int[] starts = new int[QUERIES];
+  private final int[] ends = new int[QUERIES];
+  private int query;
+  private long searches;
+  private long visitedCells;
+
+  @Setup
+  public void setUp() {
+    finder = strategy.create(
+        new PerfectMazeGenerator(side, side, StorageBackend.LARGE, 1).create());
+    SplittableRandom random = new SplittableRandom(2);
+    boolean near = distance.equals("near");
+    for (int i = 0; i < QUERIES; ) {
+      int startRow = random.nextInt(side), startColumn = random.nextInt(side);
+      int endRow = random.nextInt(side), endColumn = random.nextInt(side);
+      int manhattan = Math.abs(startRow - endRow) + Math.abs(startColumn - endColumn);
+      if (near ? manhattan <= 10 : manhattan >= side) {
+        starts[i] = startRow * side + startColumn;
+        ends[i++] = endRow * side + endColumn;
+      } else if (near) {
+        // близкую пару проще построить, чем дождаться
+        int row = Math.min(side - 1, startRow + random.nextInt(6));
+        int column = Math.min(side - 1, startColumn + random.nextInt(6));
+        starts[i] = startRow * side + startColumn;
+        ends[i++] = row * side + column;
+      }
+    }
+    Metrics.install(new MazeMetrics() {
+      @Override
+      public void pathSearched(long visited, int maxDepth, long nanos) {
+        searches++;
+        visitedCells += visited;
+      }
+    });
+  }
+
+  @TearDown(Level.Iteration)
+  public void printVisitedCells() {
+    if (searches > 0)
+      System.out.printf("  visited cells per query: %d%n", visitedCells / searches);
+    searches = 0;
+    visitedCells = 0;
+  }
+
+  @TearDown
+  public void tearDown() {
+    Metrics.install(null);
+  }
+
+  @Benchmark
+  public int[] findPath() {
+    int i = query++ & (QUERIES - 1);
+    return finder.findPathIndices(starts[i], ends[i]);
+  }
+}
@@ -0,0 +1,42 @@
+package benchmark;
+
+import domain.structures.SetUnion;
+import java.util.SplittableRandom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Операции {@link SetUnion} на одной строке алгоритма Эллера шириной <code>columns</code>:
+ * <code>columns - 1</code> проверок, около <code>columns / 2</code> объединений и удалений из
+ * множеств. Множества переходят из операции в операцию, как между строками лабиринта
+ */
+@State(Scope.Benchmark)
+public class SetUnionBenchmark {
+  @Param({"50", "1000", "10000"})
+  public int columns;
+
+  private SetUnion setUnion;
+  private SplittableRandom random;
+
+  @Setup
+  public void setUp() {
+    setUnion = new SetUnion(columns);
+    random = new SplittableRandom(1);
+  }
+
+  @Benchmark
+  public SetUnion row() {
+    for (int i = 0; i < columns - 1; i++) {
+      if (!setUnion.areConnected(i, i + 1) && random.nextBoolean())
+        setUnion.union(i, i + 1);
+    }
+    for (int i = 0; i < columns; i++) {
+      if (!setUnion.isAlone(i) && !setUnion.isLastInSet(i) && random.nextBoolean())
+        setUnion.disunion(i);
+    }
+    return setUnion;
+  }
+}
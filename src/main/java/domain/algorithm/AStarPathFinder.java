@@ -0,0 +1,129 @@
+package domain.algorithm;
+
+import domain.metrics.MazeMetrics;
+import domain.metrics.Metrics;
+import domain.model.PerfectMaze;
+
+/**
+ * Поиск пути A* с манхэттенским расстоянием до цели в качестве оценки. Первыми раскрываются
+ * ячейки с наименьшей суммой пройденного пути и оценки оставшегося, поэтому поиск идет по
+ * коридорам, которые ведут в сторону цели, и не заходит в дальние части лабиринта, пока
+ * ближние не исчерпаны<br><br>
+ *
+ * Очередь с приоритетом - двоичная куча на массиве <code>long</code>: в старших битах ключ
+ * (<code>f = g + h</code>), в младших - индекс ячейки. В идеальном лабиринте до каждой ячейки
+ * ведет единственный путь, поэтому ячейка попадает в кучу не больше одного раза и уменьшать
+ * ключи не нужно. Массивы создаются при первом запросе и переиспользуются между запросами
+ */
+public class AStarPathFinder extends GridPathFinder {
+  private static final int CELL_BITS = 31;
+  private static final long CELL_MASK = (1L << CELL_BITS) - 1;
+
+  private long[] heap;
+  private int[] parents;
+  private int[] distances;
+
+  public AStarPathFinder(PerfectMaze maze) {
+    super(maze);
+  }
+
+  @Override
+  public int[] findPathIndices(int start, int end) {
+    int cells = checkCells(start, end);
+    MazeMetrics metrics = Metrics.get();
+    long startTime = metrics.isEnabled() ? System.nanoTime() : 0;
+
+    int stamp = nextStamps(cells, 1);
+    if (heap == null) {
+      heap = new long[cells];
+      parents = new int[cells];
+      distances = new int[cells];
+    }
+    int[] stamps = this.stamps, parents = this.parents, distances = this.distances;
+    int endRow = end / columns, endColumn = end % columns;
+
+    stamps[start] = stamp;
+    parents[start] = -1;
+    distances[start] = 0;
+    int size = push(0, key(start, 0, endRow, endColumn));
+    long visited = 1;
+    int maxFrontier = 1;
+
+    int[] path = null;
+    while (size > 0) {
+      int current = (int) (heap[0] & CELL_MASK);
+      size = pop(size);
+      if (listener != null)
+        listener.cellVisited(current);
+      if (current == end) {
+        path = buildPath(end);
+        break;
+      }
+
+      int distance = distances[current] + 1;
+      for (int direction = 0; direction < DIRECTIONS; direction++) {
+        int next = neighbour(current, direction);
+        if (next < 0 || stamps[next] == stamp)
+          continue;
+        stamps[next] = stamp;
+        parents[next] = current;
+        distances[next] = distance;
+        size = push(size, key(next, distance, endRow, endColumn));
+        visited++;
+      }
+      maxFrontier = Math.max(maxFrontier, size);
+    }
+
+    if (metrics.isEnabled())
+      metrics.pathSearched(visited, maxFrontier, System.nanoTime() - startTime);
+    return path;
+  }
+
+  // f = g + h меньше 2^32: g и h не больше количества ячеек
+  private long key(int cell, int distance, int endRow, int endColumn) {
+    long estimate = Math.abs(cell / columns - endRow) + Math.abs(cell % columns - endColumn);
+    return ((distance + estimate) << CELL_BITS) | cell;
+  }
+
+  private int[] buildPath(int end) {
+    int[] path = new int[distances[end] + 1];
+    for (int i = path.length - 1, cell = end; i >= 0; i--, cell = parents[cell]) {
+      path[i] = cell;
+    }
+    return path;
+  }
+
+  private int push(int size, long value) {
+    long[] heap = this.heap;
+    int i = size;
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      if (heap[parent] <= value)
+        break;
+      heap[i] = heap[parent];
+      i = parent;
+    }
+    heap[i] = value;
+    return size + 1;
+  }
+
+  private int pop(int size) {
+    long[] heap = this.heap;
+    long last = heap[--size];
+    int i = 0;
+    while (true) {
+      int child = 2 * i + 1;
+      if (child >= size)
+        break;
+      if (child + 1 < size && heap[child + 1] < heap[child])
+        child++;
+      if (heap[child] >= last)
+        break;
+      heap[i] = heap[child];
+      i = child;
+    }
+    if (size > 0)
+      heap[i] = last;
+    return size;
+  }
+}
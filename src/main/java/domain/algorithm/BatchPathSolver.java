@@ -0,0 +1,274 @@
+package domain.algorithm;
+
+import domain.model.PerfectMaze;
+import domain.util.ArgumentCheckerUtil;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Поиск путей сразу для пачки запросов (start, end) к одному лабиринту<br><br>
+ *
+ * Вместо отдельного обхода лабиринта на каждый запрос выполняется один обход в глубину, во
+ * время которого алгоритмом Тарьяна (offline LCA) находятся наименьшие общие предки всех пар.
+ * Итого O(cells + queries) на всю пачку, а каждый путь затем восстанавливается за O(длина пути)
+ * по родителям, найденным при обходе<br><br>
+ *
+ * Экземпляр не хранит состояния между вызовами и потокобезопасен
+ */
+public class BatchPathSolver {
+  // направления обхода: верх, право, низ, лево
+  private static final int DIRECTIONS = 4;
+
+  private final PerfectMaze maze;
+  private final int rows;
+  private final int columns;
+  private final int cells;
+
+  public BatchPathSolver(PerfectMaze maze) {
+    if (maze.getCells() > PerfectMazeDFS.MAX_INDEXED_CELLS)
+      throw new UnsupportedOperationException(
+          "maze is too large for int cell indices, cells: " + maze.getCells());
+    this.maze = maze;
+    rows = maze.getRows();
+    columns = maze.getColumns();
+    cells = (int) maze.getCells();
+  }
+
+  /**
+   * Длины путей для всех пар
+   * @param starts индексы ячеек начала путей (<code>row * columns + column</code>)
+   * @param ends индексы ячеек конца путей
+   * @return количество переходов для каждой пары или <code>-1</code>, если пути нет
+   */
+  public int[] distances(int[] starts, int[] ends) {
+    Traversal traversal = traverse(starts, ends);
+    int[] distances = new int[starts.length];
+    for (int i = 0; i < starts.length; i++) {
+      distances[i] = traversal.distance(i);
+    }
+    return distances;
+  }
+
+  /**
+   * Пути для всех пар
+   * @return для каждой пары индексы ячеек пути от начала до конца включительно или null, если
+   *     пути нет
+   */
+  public int[][] findPathsIndices(int[] starts, int[] ends) {
+    Traversal traversal = traverse(starts, ends);
+    int[][] paths = new int[starts.length][];
+    for (int i = 0; i < starts.length; i++) {
+      paths[i] = traversal.path(i);
+    }
+    return paths;
+  }
+
+  /**
+   * То же, что и {@link #findPathsIndices}, но в координатах (<code>Point(x, y)</code>)
+   */
+  public List<List<Point>> findPaths(List<Point> starts, List<Point> ends) {
+    int[] startCells = new int[starts.size()];
+    int[] endCells = new int[ends.size()];
+    for (int i = 0; i < startCells.length; i++) {
+      startCells[i] = cellIndex(starts.get(i));
+    }
+    for (int i = 0; i < endCells.length; i++) {
+      endCells[i] = cellIndex(ends.get(i));
+    }
+
+    int[][] paths = findPathsIndices(startCells, endCells);
+    List<List<Point>> result = new ArrayList<>(paths.length);
+    for (int[] path : paths) {
+      if (path == null) {
+        result.add(null);
+        continue;
+      }
+      List<Point> points = new ArrayList<>(path.length);
+      for (int cell : path) {
+        points.add(new Point(cell % columns, cell / columns));
+      }
+      result.add(points);
+    }
+    return result;
+  }
+
+  private Traversal traverse(int[] starts, int[] ends) {
+    if (starts.length != ends.length)
+      throw new IllegalArgumentException(
+          "starts and ends differ in length: " + starts.length + " and " + ends.length);
+    for (int i = 0; i < starts.length; i++) {
+      checkCell(starts[i]);
+      checkCell(ends[i]);
+    }
+    Traversal traversal = new Traversal(starts, ends);
+    traversal.run();
+    return traversal;
+  }
+
+  private int cellIndex(Point point) {
+    ArgumentCheckerUtil.checkIndexBounds(point.x, columns);
+    ArgumentCheckerUtil.checkIndexBounds(point.y, rows);
+    return point.y * columns + point.x;
+  }
+
+  private void checkCell(int cell) {
+    if (cell < 0 || cell >= cells)
+      throw new ArrayIndexOutOfBoundsException("cell index is out of range, value: " + cell);
+  }
+
+  // индекс соседа в направлении direction или -1, если туда не пройти
+  private int getNeighbour(int current, int direction) {
+    int column = current % columns;
+
+    return switch (direction) {
+      case 0 ->
+              current >= columns && !maze.hasBottomWall(current - columns) ? current - columns : -1;
+      case 1 ->
+              column < columns - 1 && !maze.hasRightWall(current) ? current + 1 : -1;
+      case 2 ->
+              current / columns < rows - 1 && !maze.hasBottomWall(current) ? current + columns : -1;
+      case 3 ->
+              column > 0 && !maze.hasRightWall(current - 1) ? current - 1 : -1;
+      default -> -1;
+    };
+  }
+
+  /**
+   * Состояние одного обхода: подвешенное дерево и ответы на запросы
+   */
+  private class Traversal {
+    private final int[] starts;
+    private final int[] ends;
+    private final int[] ancestors; // LCA каждого запроса, -1 - пути нет
+
+    private final int[] parents = new int[cells];
+    private final int[] depths = new int[cells];
+    private final int[] components = new int[cells];
+    // система непересекающихся множеств алгоритма Тарьяна
+    private final int[] setParents = new int[cells];
+    private final int[] setAncestors = new int[cells];
+    private final long[] finished = new long[(cells + 63) >>> 6];
+
+    // запросы, сгруппированные по ячейкам (каждый запрос записан у обоих концов)
+    private final int[] queryOffsets = new int[cells + 1];
+    private final int[] queryIds;
+
+    Traversal(int[] starts, int[] ends) {
+      this.starts = starts;
+      this.ends = ends;
+      ancestors = new int[starts.length];
+      queryIds = new int[2 * starts.length];
+
+      for (int i = 0; i < starts.length; i++) {
+        ++queryOffsets[starts[i] + 1];
+        ++queryOffsets[ends[i] + 1];
+      }
+      for (int i = 0; i < cells; i++) {
+        queryOffsets[i + 1] += queryOffsets[i];
+      }
+      int[] fill = new int[cells];
+      for (int i = 0; i < starts.length; i++) {
+        queryIds[queryOffsets[starts[i]] + fill[starts[i]]++] = i;
+        queryIds[queryOffsets[ends[i]] + fill[ends[i]]++] = i;
+      }
+    }
+
+    void run() {
+      int[] stack = new int[cells];
+      byte[] directions = new byte[cells];
+      boolean[] visited = new boolean[cells];
+
+      for (int root = 0; root < cells; root++) {
+        if (visited[root])
+          continue;
+        int top = 0;
+        stack[0] = root;
+        directions[0] = 0;
+        open(root, root, root, visited);
+
+        while (top >= 0) {
+          int current = stack[top];
+          int direction = directions[top]++;
+
+          if (direction == DIRECTIONS) {
+            close(current);
+            if (--top >= 0) {
+              // поддерево current обойдено: присоединяем его к родителю
+              int parent = stack[top];
+              union(parent, current);
+              setAncestors[find(parent)] = parent;
+            }
+            continue;
+          }
+
+          int neighbour = getNeighbour(current, direction);
+          if (neighbour >= 0 && !visited[neighbour]) {
+            open(neighbour, current, root, visited);
+            stack[++top] = neighbour;
+            directions[top] = 0;
+          }
+        }
+      }
+    }
+
+    int distance(int query) {
+      int ancestor = ancestors[query];
+      if (ancestor < 0)
+        return -1;
+      return depths[starts[query]] + depths[ends[query]] - 2 * depths[ancestor];
+    }
+
+    int[] path(int query) {
+      int distance = distance(query);
+      if (distance < 0)
+        return null;
+
+      int ancestor = ancestors[query];
+      int[] path = new int[distance + 1];
+      int head = 0, tail = distance;
+      for (int cell = starts[query]; cell != ancestor; cell = parents[cell]) {
+        path[head++] = cell;
+      }
+      for (int cell = ends[query]; cell != ancestor; cell = parents[cell]) {
+        path[tail--] = cell;
+      }
+      path[head] = ancestor;
+      return path;
+    }
+
+    private void open(int cell, int parent, int root, boolean[] visited) {
+      visited[cell] = true;
+      parents[cell] = parent;
+      depths[cell] = cell == root ? 0 : depths[parent] + 1;
+      components[cell] = root;
+      setParents[cell] = cell;
+      setAncestors[cell] = cell;
+    }
+
+    // ячейка обойдена целиком: отвечаем на запросы, второй конец которых уже обойден
+    private void close(int cell) {
+      finished[cell >>> 6] |= 1L << cell;
+      for (int i = queryOffsets[cell]; i < queryOffsets[cell + 1]; i++) {
+        int query = queryIds[i];
+        int other = starts[query] == cell ? ends[query] : starts[query];
+        if ((finished[other >>> 6] & (1L << other)) == 0)
+          continue;
+        ancestors[query] =
+            components[other] == components[cell] ? setAncestors[find(other)] : -1;
+      }
+    }
+
+    private int find(int cell) {
+      while (setParents[cell] != cell) {
+        setParents[cell] = setParents[setParents[cell]];
+        cell = setParents[cell];
+      }
+      return cell;
+    }
+
+    private void union(int first, int second) {
+      setParents[find(second)] = find(first);
+    }
+  }
+}
@@ -0,0 +1,131 @@
+package domain.algorithm;
+
+import domain.metrics.MazeMetrics;
+import domain.metrics.Metrics;
+import domain.model.PerfectMaze;
+
+/**
+ * Поиск в ширину одновременно от начала и от конца пути. На каждом шаге расширяется на один
+ * уровень та сторона, у которой меньше очередь, и поиск останавливается, как только стороны
+ * встретились. Если путь имеет длину <code>d</code>, то просматриваются только ячейки на
+ * расстоянии до <code>d / 2</code> от концов, а не весь лабиринт, как может DFS<br><br>
+ *
+ * Обе очереди лежат в одном массиве на все ячейки: прямая растет от начала массива, обратная -
+ * от конца. Каждая ячейка попадает только в одну очередь, поэтому они не пересекаются. Массивы
+ * создаются при первом запросе и переиспользуются, так что запрос выделяет память только под
+ * результат
+ */
+public class BidirectionalBfsPathFinder extends GridPathFinder {
+  private int[] queue;
+  private int[] parents;
+
+  public BidirectionalBfsPathFinder(PerfectMaze maze) {
+    super(maze);
+  }
+
+  @Override
+  public int[] findPathIndices(int start, int end) {
+    int cells = checkCells(start, end);
+    MazeMetrics metrics = Metrics.get();
+    long startTime = metrics.isEnabled() ? System.nanoTime() : 0;
+
+    int forward = nextStamps(cells, 2), backward = forward + 1;
+    if (queue == null) {
+      queue = new int[cells];
+      parents = new int[cells];
+    }
+    int[] stamps = this.stamps, queue = this.queue, parents = this.parents;
+
+    int[] path = null;
+    int maxFrontier = 1;
+    int forwardHead = 0, forwardTail = 0;
+    // обратная очередь: голова и хвост двигаются от конца массива к началу
+    int backwardHead = cells - 1, backwardTail = cells - 1;
+    stamps[start] = forward;
+    parents[start] = -1;
+    queue[forwardTail++] = start;
+    if (listener != null)
+      listener.cellVisited(start);
+    if (start == end) {
+      path = new int[] {start};
+    } else {
+      stamps[end] = backward;
+      parents[end] = -1;
+      queue[backwardTail--] = end;
+      if (listener != null)
+        listener.cellVisited(end);
+    }
+
+    while (path == null && forwardHead < forwardTail && backwardHead > backwardTail) {
+      int forwardSize = forwardTail - forwardHead, backwardSize = backwardHead - backwardTail;
+      maxFrontier = Math.max(maxFrontier, forwardSize + backwardSize);
+      if (forwardSize <= backwardSize) {
+        // один уровень прямого поиска
+        for (int levelEnd = forwardTail; path == null && forwardHead < levelEnd; ) {
+          int current = queue[forwardHead++];
+          for (int direction = 0; direction < DIRECTIONS; direction++) {
+            int next = neighbour(current, direction);
+            if (next < 0 || stamps[next] == forward)
+              continue;
+            if (stamps[next] == backward) {
+              path = joinPath(current, next);
+              break;
+            }
+            stamps[next] = forward;
+            parents[next] = current;
+            queue[forwardTail++] = next;
+            if (listener != null)
+              listener.cellVisited(next);
+          }
+        }
+      } else {
+        // один уровень обратного поиска
+        for (int levelEnd = backwardTail; path == null && backwardHead > levelEnd; ) {
+          int current = queue[backwardHead--];
+          for (int direction = 0; direction < DIRECTIONS; direction++) {
+            int next = neighbour(current, direction);
+            if (next < 0 || stamps[next] == backward)
+              continue;
+            if (stamps[next] == forward) {
+              path = joinPath(next, current);
+              break;
+            }
+            stamps[next] = backward;
+            parents[next] = current;
+            queue[backwardTail--] = next;
+            if (listener != null)
+              listener.cellVisited(next);
+          }
+        }
+      }
+    }
+
+    if (metrics.isEnabled()) {
+      long visited = forwardTail + (cells - 1 - backwardTail);
+      metrics.pathSearched(visited, maxFrontier, System.nanoTime() - startTime);
+    }
+    return path;
+  }
+
+  // Путь через соседние ячейки: last - конец прямой половины, first - начало обратной
+  private int[] joinPath(int last, int first) {
+    int forwardLength = 0, backwardLength = 0;
+    for (int cell = last; cell >= 0; cell = parents[cell]) {
+      forwardLength++;
+    }
+    for (int cell = first; cell >= 0; cell = parents[cell]) {
+      backwardLength++;
+    }
+
+    int[] path = new int[forwardLength + backwardLength];
+    int i = forwardLength;
+    for (int cell = last; cell >= 0; cell = parents[cell]) {
+      path[--i] = cell;
+    }
+    i = forwardLength;
+    for (int cell = first; cell >= 0; cell = parents[cell]) {
+      path[i++] = cell;
+    }
+    return path;
+  }
+}
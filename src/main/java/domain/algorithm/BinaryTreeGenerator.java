@@ -0,0 +1,37 @@
+package domain.algorithm;
+
+import domain.model.StorageBackend;
+import domain.structures.WallStorage;
+import java.util.random.RandomGenerator;
+
+/**
+ * Генерация двоичным деревом: из каждой ячейки проход ведет либо вправо, либо вниз (один
+ * случайный бит на ячейку). В последней строке проход всегда вправо, в последнем столбце - вниз.
+ * Самый быстрый алгоритм, рабочей памяти не нужно, а ячейки пишутся по порядку, поэтому размер
+ * ограничен только хранилищем. Лабиринт сильно смещен: последняя строка и последний столбец -
+ * сплошные коридоры, а от любой ячейки к правому нижнему углу ведет путь без шагов назад
+ */
+class BinaryTreeGenerator extends GridMazeGenerator {
+  BinaryTreeGenerator(int rows, int columns, StorageBackend backend, RandomGenerator random) {
+    super(rows, columns, backend, random);
+  }
+
+  @Override
+  long carve(WallStorage walls) {
+    for (int row = 0; row < rows; row++) {
+      boolean lastRow = row == rows - 1;
+      long cell = (long) row * columns;
+      for (int column = 0; column < columns; column++, cell++) {
+        boolean lastColumn = column == columns - 1;
+        if (lastRow && lastColumn)
+          break;
+        if (!lastColumn && (lastRow || randomBit())) {
+          walls.setRightWall(cell, false);
+        } else {
+          walls.setBottomWall(cell, false);
+        }
+      }
+    }
+    return 0;
+  }
+}
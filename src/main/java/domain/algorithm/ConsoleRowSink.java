@@ -0,0 +1,39 @@
+package domain.algorithm;
+
+import domain.constants.Constants;
+import java.io.PrintStream;
+
+/**
+ * Вывод строк лабиринта в терминал по мере генерации
+ */
+public class ConsoleRowSink implements RowSink {
+  private final PrintStream out;
+
+  public ConsoleRowSink() {
+    this(System.out);
+  }
+
+  public ConsoleRowSink(PrintStream out) {
+    this.out = out;
+  }
+
+  @Override
+  public void acceptRow(int row, int[] mazeRow) {
+    StringBuilder line = new StringBuilder(2 * mazeRow.length + 1);
+    line.append('|');
+    for (int walls : mazeRow) {
+      switch (walls) {
+        case Constants.EMPTY ->
+                line.append("  ");
+        case Constants.RIGHT_WALL ->
+                line.append(" |");
+        case Constants.BOTTOM_WALL ->
+                line.append("__");
+        case Constants.RIGHT_BOTTOM_WALLS ->
+                line.append("_|");
+      }
+    }
+    line.append('\n');
+    out.print(line);
+  }
+}
@@ -0,0 +1,170 @@
+package domain.algorithm;
+
+import domain.constants.Constants;
+import domain.structures.SetUnion;
+import java.util.random.RandomGenerator;
+
+/**
+ * Построчная генерация лабиринта алгоритмом Эллера. Хранит только текущую строку и множества
+ * ячеек этой строки, поэтому каждому запуску генерации (и каждой полосе при параллельной
+ * генерации) нужен свой экземпляр
+ */
+class EllerRowGenerator {
+  private final int columns;
+  private final RandomGenerator random;
+  private final SetUnion setUnion;
+  private final int[] mazeRow;
+  private final GenerationListener listener; // null, если события не нужны
+  private int row; // номер текущей строки для событий
+
+  // запас случайных бит: один nextLong дает 64 решения о стенах
+  private long randomBits;
+  private int randomBitsLeft;
+
+  EllerRowGenerator(int columns, RandomGenerator random) {
+    this(columns, random, null);
+  }
+
+  EllerRowGenerator(int columns, RandomGenerator random, GenerationListener listener) {
+    this.columns = columns;
+    this.random = random;
+    this.listener = listener;
+    setUnion = new SetUnion(columns);
+    mazeRow = new int[columns];
+  }
+
+  /**
+   * Генерация <code>rows</code> строк. Последняя строка закрывает лабиринт снизу и соединяет все
+   * множества, поэтому результат - идеальный лабиринт высотой <code>rows</code>
+   * @param firstRow номер первой строки, с которым строки передаются в <code>sink</code>
+   */
+  void generate(int firstRow, int rows, RowSink sink) {
+    for (int row = 0; row < rows; row++) {
+      this.row = firstRow + row;
+      randomRightWalls(mazeRow);
+      randomBottomWalls(mazeRow);
+      if (row != rows - 1) {
+        emitRow(sink);
+        clearMazeRow(mazeRow);
+      } else {
+        processLastRow(mazeRow);
+        emitRow(sink);
+      }
+    }
+  }
+
+  private void emitRow(RowSink sink) {
+    sink.acceptRow(row, mazeRow);
+    if (listener != null)
+      listener.rowCompleted(row, mazeRow);
+  }
+
+  private void join(int column) {
+    setUnion.union(column, column + 1);
+    if (listener != null)
+      listener.cellsJoined(row, column);
+  }
+
+  long getUnionCount() {
+    return setUnion.getUnionCount();
+  }
+
+  private void randomRightWalls(int[] mazeRow) {
+    for (int i = 0; i < columns - 1; i++) {
+      if (setUnion.areConnected(i, i + 1)) { // если в едином множестве, то ставим правую стенку
+        mazeRow[i] = Constants.RIGHT_WALL;
+      } else { // если не в одном множестве
+        int value = randomZeroOrOne();
+
+        if (value == Constants.RIGHT_WALL) { // просто ставим стенку
+          mazeRow[i] = Constants.RIGHT_WALL;
+        } else { // стенку не ставим, объединяем множества в одно
+          join(i);
+        }
+      }
+    }
+    mazeRow[columns - 1] = Constants.RIGHT_WALL;
+  }
+
+  private void randomBottomWalls(int[] bottomBoards) {
+    int emptyCount = 0;
+
+    for (int i = 0; i < columns; i++) {
+      // Ячейка лабиринта не одна в своем множестве.
+      // А если одна, то мы нижнюю границу не ставим (то есть пропускаем итерацию)
+
+      if (!setUnion.isAlone(
+              i)) { // если множество состоит из одного элемента, то пропускаем итерацию
+        int value = randomZeroOrTwo();
+        if (value == Constants.EMPTY)
+          ++emptyCount;
+
+        boolean isLast = setUnion.isLastInSet(i);
+
+        // гарантия того, что хотя бы одна ячейка в множестве будет
+        // без нижней стены (в данном случае это уже последняя)
+        if (isLast && emptyCount == 0) {
+          continue;
+        }
+
+        // сумма, т.к. мы учитываем, стоит ли еще правая стенка тут, если да, то у нас уже
+        // число 3 в ячейке, а если нет, то число 2
+        bottomBoards[i] += value;
+        if (isLast)
+          emptyCount = 0;
+      }
+    }
+  }
+
+  // для генерации правых стенок (Constants.RIGHT_WALL)
+  private int randomZeroOrOne() {
+    if (randomBitsLeft == 0) {
+      randomBits = random.nextLong();
+      randomBitsLeft = Long.SIZE;
+    }
+    int bit = (int) randomBits & 1;
+    randomBits >>>= 1;
+    --randomBitsLeft;
+    return bit;
+  }
+  // для генерации нижних стенок (Constants.BOTTOM_WALL)
+  private int randomZeroOrTwo() {
+    int val = randomZeroOrOne();
+    return val * 2;
+  }
+
+  private void clearMazeRow(int[] mazeRow) {
+    for (int i = 0; i < columns; i++) {
+
+      boolean hasBottomWall = mazeRow[i] == Constants.BOTTOM_WALL || mazeRow[i] == Constants.RIGHT_BOTTOM_WALLS;
+      mazeRow[i] = Constants.EMPTY;
+
+      if (hasBottomWall) {
+        setUnion.disunion(i); // если нижняя граница, то нужно элемент удалить из его множества
+      }
+    }
+  }
+
+  private void processLastRow(int[] mazeRow) {
+    for (int i = 0; i < columns - 1; i++) {
+      // Добавляем нижнюю стену всем
+      switch (mazeRow[i]) {
+        case Constants.EMPTY ->
+                mazeRow[i] = Constants.BOTTOM_WALL;
+        case Constants.RIGHT_WALL ->
+                mazeRow[i] = Constants.RIGHT_BOTTOM_WALLS;
+      }
+
+      // Если ячейки в разных множествах - убираем правую стену
+      if (!setUnion.areConnected(i, i + 1)) {
+        // Убираем правую стену, но оставляем нижнюю
+        if (mazeRow[i] == Constants.RIGHT_BOTTOM_WALLS) {
+          mazeRow[i] = Constants.BOTTOM_WALL;
+        }
+        // Если была только нижняя стена, она и остается
+        join(i);
+      }
+    }
+    mazeRow[columns - 1] = Constants.RIGHT_BOTTOM_WALLS;
+  }
+}
@@ -0,0 +1,104 @@
+package domain.algorithm;
+
+import domain.model.StorageBackend;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Доступные алгоритмы генерации. Все создают идеальный лабиринт в одном формате
+ * ({@link domain.model.PerfectMaze}) и различаются скоростью, памятью и видом<br><br>
+ *
+ * <code>ELLER</code> - алгоритм Эллера ({@link PerfectMazeGenerator}). Строка за строкой с
+ * памятью O(columns), поддерживает потоковую и параллельную генерацию<br>
+ * <code>BINARY_TREE</code> - двоичное дерево ({@link BinaryTreeGenerator}). Самый быстрый,
+ * без рабочей памяти, но сильно смещенный<br>
+ * <code>SIDEWINDER</code> - Sidewinder ({@link SidewinderGenerator}). Почти так же быстр, без
+ * рабочей памяти, смещение слабее<br>
+ * <code>KRUSKAL</code> - случайный Краскал ({@link KruskalGenerator}). Без смещения, 12 байт на
+ * ячейку<br>
+ * <code>WILSON</code> - алгоритм Уилсона ({@link WilsonGenerator}). Равномерное остовное
+ * дерево, самый медленный, 1 байт на ячейку<br>
+ * <code>RECURSIVE_BACKTRACKER</code> - случайный поиск в глубину
+ * ({@link RecursiveBacktrackerGenerator}). Длинные коридоры, 5 байт на ячейку<br><br>
+ *
+ * Алгоритмы с рабочими массивами на все ячейки (Краскал, Уилсон, поиск в глубину) работают с
+ * индексами <code>int</code> и выбрасывают <code>UnsupportedOperationException</code> для
+ * лабиринтов больше {@link PerfectMazeDFS#MAX_INDEXED_CELLS} ячеек (Краскал - вдвое меньше)
+ * <br><br>
+ *
+ * Замеры (<code>GenerationAlgorithmBenchmark</code>, 1000 x 1000): двоичное дерево и Sidewinder
+ * в 5-7 раз быстрее Эллера, поиск в глубину - наравне с ним, Уилсон - примерно втрое медленнее,
+ * а Краскал - в 5-6 раз: перемешивание стен и поиск множеств обращаются к памяти вразброс
+ */
+public enum GenerationAlgorithm {
+  ELLER("Eller") {
+    @Override
+    public MazeGenerator create(
+        int rows, int columns, StorageBackend backend, RandomGenerator random) {
+      return new PerfectMazeGenerator(rows, columns, backend, random);
+    }
+  },
+  BINARY_TREE("Binary tree") {
+    @Override
+    public MazeGenerator create(
+        int rows, int columns, StorageBackend backend, RandomGenerator random) {
+      return new BinaryTreeGenerator(rows, columns, backend, random);
+    }
+  },
+  SIDEWINDER("Sidewinder") {
+    @Override
+    public MazeGenerator create(
+        int rows, int columns, StorageBackend backend, RandomGenerator random) {
+      return new SidewinderGenerator(rows, columns, backend, random);
+    }
+  },
+  KRUSKAL("Kruskal") {
+    @Override
+    public MazeGenerator create(
+        int rows, int columns, StorageBackend backend, RandomGenerator random) {
+      return new KruskalGenerator(rows, columns, backend, random);
+    }
+  },
+  WILSON("Wilson") {
+    @Override
+    public MazeGenerator create(
+        int rows, int columns, StorageBackend backend, RandomGenerator random) {
+      return new WilsonGenerator(rows, columns, backend, random);
+    }
+  },
+  RECURSIVE_BACKTRACKER("Recursive backtracker") {
+    @Override
+    public MazeGenerator create(
+        int rows, int columns, StorageBackend backend, RandomGenerator random) {
+      return new RecursiveBacktrackerGenerator(rows, columns, backend, random);
+    }
+  };
+
+  private final String title;
+
+  GenerationAlgorithm(String title) {
+    this.title = title;
+  }
+
+  /**
+   * Новый генератор
+   * @param random источник случайных чисел. Генератор не потокобезопасный, поэтому
+   *     <code>random</code> не должен использоваться одновременно где-то еще
+   * @throws ArrayIndexOutOfBoundsException если размеры не подходят для <code>backend</code>
+   */
+  public abstract MazeGenerator create(
+      int rows, int columns, StorageBackend backend, RandomGenerator random);
+
+  /**
+   * Воспроизводимый генератор: тот же алгоритм с тем же <code>seed</code> и размерами создает
+   * тот же лабиринт
+   */
+  public MazeGenerator create(int rows, int columns, StorageBackend backend, long seed) {
+    return create(rows, columns, backend, new SplittableRandom(seed));
+  }
+
+  @Override
+  public String toString() {
+    return title;
+  }
+}
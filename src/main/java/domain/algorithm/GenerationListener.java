@@ -0,0 +1,22 @@
+package domain.algorithm;
+
+/**
+ * Наблюдатель за генерацией лабиринта ({@link PerfectMazeGenerator#setListener}), например для
+ * пошаговой анимации. Методы вызываются в потоке генерации, поэтому должны быть быстрыми<br><br>
+ *
+ * Если наблюдатель не задан, то генератор не создает событий и работает с полной скоростью
+ */
+public interface GenerationListener {
+  /**
+   * Ячейки <code>column</code> и <code>column + 1</code> строки <code>row</code> объединены в одно
+   * множество: стены между ними не будет
+   */
+  default void cellsJoined(int row, int column) {}
+
+  /**
+   * Строка готова. Для {@link PerfectMazeGenerator#create()} к этому моменту она уже записана в
+   * хранилище стен
+   * @param mazeRow коды стен ячеек строки, как в {@link RowSink}. Массив нельзя хранить
+   */
+  default void rowCompleted(int row, int[] mazeRow) {}
+}
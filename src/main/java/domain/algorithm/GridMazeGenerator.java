@@ -0,0 +1,143 @@
+package domain.algorithm;
+
+import domain.metrics.MazeMetrics;
+import domain.metrics.Metrics;
+import domain.model.PerfectMaze;
+import domain.model.StorageBackend;
+import domain.structures.OffHeapWalls;
+import domain.structures.PackedWalls;
+import domain.structures.WallStorage;
+import domain.util.ArgumentCheckerUtil;
+import java.util.random.RandomGenerator;
+
+/**
+ * Общая часть генераторов, которые прорубают проходы в сплошной сетке: сначала у всех ячеек
+ * ставятся обе стены, затем реализация убирает ровно <code>cells - 1</code> стен так, чтобы
+ * лабиринт остался деревом. Внешние стены при этом не трогаются
+ */
+abstract class GridMazeGenerator implements MazeGenerator {
+  static final int DIRECTIONS = 4;
+
+  final int rows;
+  final int columns;
+  final StorageBackend backend;
+  final RandomGenerator random;
+
+  // запас случайных бит: один nextLong дает 64 решения
+  private long randomBits;
+  private int randomBitsLeft;
+
+  GridMazeGenerator(int rows, int columns, StorageBackend backend, RandomGenerator random) {
+    ArgumentCheckerUtil.checkMazeSize(rows, backend);
+    ArgumentCheckerUtil.checkMazeSize(columns, backend);
+    this.rows = rows;
+    this.columns = columns;
+    this.backend = backend;
+    this.random = random;
+  }
+
+  @Override
+  public PerfectMaze create() {
+    ArgumentCheckerUtil.checkMazeSize(rows, columns, backend);
+    return create(newWalls(backend, (long) rows * columns));
+  }
+
+  @Override
+  public PerfectMaze create(WallStorage walls) {
+    if (walls.getCells() != (long) rows * columns)
+      throw new IllegalArgumentException(
+          "walls do not match maze size, cells: " + walls.getCells());
+    MazeMetrics metrics = Metrics.get();
+    long start = metrics.isEnabled() ? System.nanoTime() : 0;
+
+    fillWalls(walls);
+    long unions = carve(walls);
+
+    if (metrics.isEnabled())
+      metrics.generated(rows, columns, unions, System.nanoTime() - start);
+    return new PerfectMaze(rows, columns, walls);
+  }
+
+  /**
+   * Прорубание проходов в хранилище, где у всех ячеек есть обе стены
+   * @return количество объединений множеств для метрик (<code>0</code>, если алгоритм не
+   *     работает с множествами)
+   */
+  abstract long carve(WallStorage walls);
+
+  /**
+   * Пустое хранилище для <code>create()</code>: вне кучи или в куче. Файл из плиток
+   * (<code>TILED</code>) сам не создается: ему нужен путь, и закрывать его должен вызывающий код
+   */
+  static WallStorage newWalls(StorageBackend backend, long cells) {
+    return switch (backend) {
+      case OFF_HEAP -> new OffHeapWalls(cells);
+      case TILED -> throw new IllegalArgumentException("TILED mazes are generated into a file: "
+          + "use create(WallStorage) with TiledMazeFormat.create(...)");
+      default -> new PackedWalls(cells);
+    };
+  }
+
+  /**
+   * Проверка, что ячейки помещаются в индексы <code>int</code>
+   * @param perCell сколько элементов рабочего массива нужно на ячейку
+   * @return количество ячеек
+   */
+  int indexedCells(int perCell) {
+    long cells = (long) rows * columns;
+    if (cells * perCell > PerfectMazeDFS.MAX_INDEXED_CELLS)
+      throw new UnsupportedOperationException(
+          "maze is too large for int cell indices, cells: " + cells);
+    return (int) cells;
+  }
+
+  // соседняя ячейка в направлении direction (вверх, вправо, вниз, влево) или -1 за краем
+  int neighbour(int cell, int direction) {
+    return switch (direction) {
+      case 0 -> cell >= columns ? cell - columns : -1;
+      case 1 -> cell % columns < columns - 1 ? cell + 1 : -1;
+      case 2 -> cell / columns < rows - 1 ? cell + columns : -1;
+      case 3 -> cell % columns > 0 ? cell - 1 : -1;
+      default -> -1;
+    };
+  }
+
+  // проход между соседними ячейками
+  static void removeWall(WallStorage walls, int cell, int neighbour) {
+    if (neighbour == cell + 1) {
+      walls.setRightWall(cell, false);
+    } else if (neighbour == cell - 1) {
+      walls.setRightWall(neighbour, false);
+    } else if (neighbour > cell) {
+      walls.setBottomWall(cell, false);
+    } else {
+      walls.setBottomWall(neighbour, false);
+    }
+  }
+
+  boolean randomBit() {
+    return randomBits(1) != 0;
+  }
+
+  // count (не больше 31) случайных бит
+  int randomBits(int count) {
+    if (randomBitsLeft < count) {
+      randomBits = random.nextLong();
+      randomBitsLeft = Long.SIZE;
+    }
+    int bits = (int) (randomBits & ((1L << count) - 1));
+    randomBits >>>= count;
+    randomBitsLeft -= count;
+    return bits;
+  }
+
+  // Все стены словами: по два единичных бита на ячейку, без лишних бит за последней ячейкой
+  private static void fillWalls(WallStorage walls) {
+    long words = walls.getWordCount();
+    for (long i = 0; i < words - 1; i++) {
+      walls.setWord(i, -1L);
+    }
+    int tail = (int) (walls.getCells() - (words - 1) * WallStorage.CELLS_PER_WORD);
+    walls.setWord(words - 1, tail == WallStorage.CELLS_PER_WORD ? -1L : (1L << 2 * tail) - 1);
+  }
+}
@@ -0,0 +1,107 @@
+package domain.algorithm;
+
+import domain.model.PerfectMaze;
+import domain.util.ArgumentCheckerUtil;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Общая часть поиска пути на индексах <code>int</code>: проверка аргументов, соседи ячейки,
+ * перевод пути в координаты и отметки посещенных ячеек номером запроса (эпохой), чтобы не
+ * очищать массивы между запросами
+ */
+abstract class GridPathFinder implements PathFinder {
+  static final int DIRECTIONS = 4;
+
+  final PerfectMaze maze;
+  final int rows;
+  final int columns;
+
+  // отметки посещения, создаются при первом запросе
+  int[] stamps;
+  private int epoch;
+  SolverListener listener; // null, если события не нужны
+
+  GridPathFinder(PerfectMaze maze) {
+    this.maze = maze;
+    rows = maze.getRows();
+    columns = maze.getColumns();
+  }
+
+  @Override
+  public List<Point> findPath(Point start, Point end) {
+    checkPoint(start);
+    checkPoint(end);
+    int[] path = findPathIndices(
+        (int) maze.cellIndex(start.y, start.x), (int) maze.cellIndex(end.y, end.x));
+    return path == null ? null : toPoints(path);
+  }
+
+  @Override
+  public void setListener(SolverListener listener) {
+    this.listener = listener;
+  }
+
+  /**
+   * Проверка индексов и размера лабиринта
+   * @return количество ячеек
+   */
+  int checkCells(int start, int end) {
+    if (maze.getCells() > PerfectMazeDFS.MAX_INDEXED_CELLS)
+      throw new UnsupportedOperationException(
+          "maze is too large for int cell indices, cells: " + maze.getCells());
+    int cells = (int) maze.getCells();
+    checkCell(start, cells);
+    checkCell(end, cells);
+    return cells;
+  }
+
+  /**
+   * Новые отметки для запроса: <code>count</code> подряд идущих значений, не встречавшихся в
+   * {@link #stamps} после предыдущего запроса
+   * @return первое из значений
+   */
+  int nextStamps(int cells, int count) {
+    if (stamps == null)
+      stamps = new int[cells];
+    if (epoch > Integer.MAX_VALUE - count) {
+      Arrays.fill(stamps, 0);
+      epoch = 0;
+    }
+    int first = epoch + 1;
+    epoch += count;
+    return first;
+  }
+
+  // индекс соседа в направлении direction (вверх, вправо, вниз, влево) или -1
+  int neighbour(int cell, int direction) {
+    int column = cell % columns;
+    return switch (direction) {
+      case 0 -> cell >= columns && !maze.hasBottomWall(cell - columns) ? cell - columns : -1;
+      case 1 -> column < columns - 1 && !maze.hasRightWall(cell) ? cell + 1 : -1;
+      case 2 -> cell / columns < rows - 1 && !maze.hasBottomWall(cell) ? cell + columns : -1;
+      case 3 -> column > 0 && !maze.hasRightWall(cell - 1) ? cell - 1 : -1;
+      default -> -1;
+    };
+  }
+
+  List<Point> toPoints(int[] path) {
+    List<Point> points = new ArrayList<>(path.length);
+    for (int cell : path) {
+      points.add(new Point(cell % columns, cell / columns));
+    }
+    return points;
+  }
+
+  private void checkPoint(Point point) {
+    ArgumentCheckerUtil.checkIndexBounds(point.x, columns);
+    ArgumentCheckerUtil.checkIndexBounds(point.y, rows);
+  }
+
+  private static void checkCell(int cell, int cells) {
+    if (cell < 0 || cell >= cells)
+      throw new ArrayIndexOutOfBoundsException("cell index is out of range, value: " + cell);
+  }
+}
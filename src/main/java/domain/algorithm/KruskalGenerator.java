@@ -0,0 +1,81 @@
+package domain.algorithm;
+
+import domain.model.StorageBackend;
+import domain.structures.WallStorage;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Генерация случайным алгоритмом Краскала: внутренние стены перебираются в случайном порядке,
+ * и стена убирается, если ячейки по обе стороны еще не соединены. Соединенность хранится в
+ * системе непересекающихся множеств на все ячейки (<code>int[]</code>, сжатие путей делением
+ * пополам и объединение по размеру). Порядок стен - перемешивание Фишера-Йетса, которое идет
+ * вместе с перебором и останавливается после <code>cells - 1</code> проходов<br><br>
+ *
+ * Лабиринт без смещения, с множеством коротких тупиков. Памяти нужно 12 байт на ячейку
+ */
+class KruskalGenerator extends GridMazeGenerator {
+  KruskalGenerator(int rows, int columns, StorageBackend backend, RandomGenerator random) {
+    super(rows, columns, backend, random);
+  }
+
+  @Override
+  long carve(WallStorage walls) {
+    int cells = indexedCells(2);
+    // стены: сначала правые (rows * (columns - 1)), затем нижние ((rows - 1) * columns)
+    int rightWalls = rows * (columns - 1);
+    int[] order = new int[rightWalls + (rows - 1) * columns];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    // у корня - минус размер множества, у остальных - родитель
+    int[] parents = new int[cells];
+    Arrays.fill(parents, -1);
+
+    long unions = 0;
+    for (int i = 0; unions < cells - 1; i++) {
+      int j = i + random.nextInt(order.length - i);
+      int wall = order[j];
+      order[j] = order[i];
+
+      int cell, neighbour;
+      if (wall < rightWalls) {
+        cell = wall / (columns - 1) * columns + wall % (columns - 1);
+        neighbour = cell + 1;
+      } else {
+        cell = wall - rightWalls;
+        neighbour = cell + columns;
+      }
+      if (union(parents, cell, neighbour)) {
+        removeWall(walls, cell, neighbour);
+        unions++;
+      }
+    }
+    return unions;
+  }
+
+  private static boolean union(int[] parents, int first, int second) {
+    int a = find(parents, first), b = find(parents, second);
+    if (a == b)
+      return false;
+    if (parents[a] > parents[b]) { // меньшее множество подвешивается к большему
+      int swap = a;
+      a = b;
+      b = swap;
+    }
+    parents[a] += parents[b];
+    parents[b] = a;
+    return true;
+  }
+
+  private static int find(int[] parents, int node) {
+    while (parents[node] >= 0) {
+      int parent = parents[node];
+      if (parents[parent] >= 0) {
+        parents[node] = parents[parent];
+      }
+      node = parent;
+    }
+    return node;
+  }
+}
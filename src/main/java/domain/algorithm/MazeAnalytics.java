@@ -0,0 +1,260 @@
+package domain.algorithm;
+
+import domain.model.PerfectMaze;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Характеристики лабиринта для оценки сложности: диаметр (самый длинный путь), эксцентриситет
+ * каждой ячейки (расстояние до самой далекой от нее ячейки), радиус и центр, количество тупиков
+ * и гистограмма степеней ячеек (сколько проходов ведет из ячейки)<br><br>
+ *
+ * Все считается за O(cells) без перебора пар ячеек. Идеальный лабиринт - дерево, а в дереве:
+ * <br>
+ * - самая далекая ячейка от любой ячейки - конец диаметра, поэтому диаметр находится двумя
+ * обходами в ширину: от ячейки <code>0</code> до самой далекой ячейки <code>a</code> и от
+ * <code>a</code> до самой далекой <code>b</code><br>
+ * - эксцентриситет ячейки равен большему из расстояний до <code>a</code> и <code>b</code>,
+ * поэтому хватает третьего обхода от <code>b</code><br><br>
+ *
+ * Проходы ячеек, степени и итоговые эксцентриситеты считаются параллельно по строкам на общем
+ * пуле потоков, начиная с {@link #PARALLEL_CELLS} ячеек. Обходы в ширину последовательные:
+ * каждый следующий начинается от результата предыдущего, а фронт обхода в лабиринте узкий (это
+ * дерево из длинных коридоров), и уровней в нем столько же, сколько шагов в диаметре, так что
+ * синхронизация потоков на каждом уровне стоила бы дороже самого обхода.
+ * Результат неизменяемый, массивы отдаются копиями
+ */
+public final class MazeAnalytics {
+  /**
+   * Количество ячеек, начиная с которого вычисления распараллеливаются
+   */
+  public static final int PARALLEL_CELLS = 1 << 16;
+
+  // проходы из ячейки: биты направлений
+  private static final int UP = 1;
+  private static final int RIGHT = 2;
+  private static final int DOWN = 4;
+  private static final int LEFT = 8;
+
+  private final int columns;
+  private final int[] eccentricities;
+  private final int[] degreeHistogram;
+  private final int diameterStart;
+  private final int diameterEnd;
+  private final int diameter;
+  private final int center;
+
+  private MazeAnalytics(int columns, int[] eccentricities, int[] degreeHistogram,
+      int diameterStart, int diameterEnd) {
+    this.columns = columns;
+    this.eccentricities = eccentricities;
+    this.degreeHistogram = degreeHistogram;
+    this.diameterStart = diameterStart;
+    this.diameterEnd = diameterEnd;
+    diameter = eccentricities[diameterStart];
+
+    int best = 0;
+    for (int cell = 1; cell < eccentricities.length; cell++) {
+      if (eccentricities[cell] < eccentricities[best])
+        best = cell;
+    }
+    center = best;
+  }
+
+  /**
+   * Вычисление всех характеристик лабиринта
+   * @throws IllegalArgumentException если лабиринт не идеальный: несвязный или с циклами
+   *     (например, загруженный из файла)
+   */
+  public static MazeAnalytics analyze(PerfectMaze maze) {
+    return analyze(maze, maze.getCells() >= PARALLEL_CELLS);
+  }
+
+  /**
+   * То же, что и {@link #analyze(PerfectMaze)}, но параллельность проходов по строкам задается
+   * явно, независимо от {@link #PARALLEL_CELLS}
+   */
+  public static MazeAnalytics analyze(PerfectMaze maze, boolean parallel) {
+    if (maze.getCells() > PerfectMazeDFS.MAX_INDEXED_CELLS)
+      throw new UnsupportedOperationException(
+          "maze is too large for int cell indices, cells: " + maze.getCells());
+    int cells = (int) maze.getCells();
+    int columns = maze.getColumns();
+
+    byte[] passages = passages(maze, parallel);
+    int[] histogram = rowStream(maze.getRows(), parallel).collect(
+        () -> new int[5],
+        (counts, row) -> {
+          for (int cell = row * columns, end = cell + columns; cell < end; cell++) {
+            counts[Integer.bitCount(passages[cell])]++;
+          }
+        },
+        (first, second) -> {
+          for (int i = 0; i < first.length; i++) {
+            first[i] += second[i];
+          }
+        });
+    long passageEnds = 0;
+    for (int degree = 1; degree < histogram.length; degree++) {
+      passageEnds += (long) degree * histogram[degree];
+    }
+    if (passageEnds != 2L * (cells - 1))
+      throw new IllegalArgumentException("maze is not a tree, passages: " + passageEnds / 2);
+
+    int[] queue = new int[cells];
+    int[] fromStart = new int[cells];
+    int[] fromEnd = new int[cells];
+    int start = bfs(passages, columns, 0, fromStart, queue);
+    int end = bfs(passages, columns, start, fromStart, queue);
+    bfs(passages, columns, end, fromEnd, queue);
+
+    // эксцентриситет - большее из расстояний до концов диаметра
+    rowStream(maze.getRows(), parallel).forEach(row -> {
+      for (int cell = row * columns, last = cell + columns; cell < last; cell++) {
+        fromStart[cell] = Math.max(fromStart[cell], fromEnd[cell]);
+      }
+    });
+    return new MazeAnalytics(columns, fromStart, histogram, start, end);
+  }
+
+  /**
+   * Длина самого длинного пути в лабиринте (количество переходов)
+   */
+  public int getDiameter() {
+    return diameter;
+  }
+
+  /**
+   * Ячейка на одном конце самого длинного пути. Самых длинных путей может быть несколько
+   */
+  public int getDiameterStart() {
+    return diameterStart;
+  }
+
+  /**
+   * Ячейка на другом конце самого длинного пути
+   */
+  public int getDiameterEnd() {
+    return diameterEnd;
+  }
+
+  /**
+   * Наименьший эксцентриситет
+   */
+  public int getRadius() {
+    return eccentricities[center];
+  }
+
+  /**
+   * Ячейка с наименьшим эксцентриситетом: от нее дальше всего до самой далекой ячейки меньше,
+   * чем от любой другой
+   */
+  public int getCenter() {
+    return center;
+  }
+
+  /**
+   * Расстояние от ячейки <code>row * columns + column</code> до самой далекой от нее ячейки
+   */
+  public int getEccentricity(int cell) {
+    return eccentricities[cell];
+  }
+
+  /**
+   * Эксцентриситеты всех ячеек, индекс - <code>row * columns + column</code>
+   */
+  public int[] getEccentricities() {
+    return eccentricities.clone();
+  }
+
+  /**
+   * Гистограмма степеней: элемент <code>i</code> - количество ячеек, из которых ведет
+   * <code>i</code> проходов (от 0 до 4)
+   */
+  public int[] getDegreeHistogram() {
+    return degreeHistogram.clone();
+  }
+
+  /**
+   * Количество тупиков - ячеек с одним проходом
+   */
+  public int getDeadEnds() {
+    return degreeHistogram[1];
+  }
+
+  /**
+   * Средняя степень развилок: сколько проходов в среднем у ячеек с тремя и более проходами.
+   * <code>0</code>, если развилок нет
+   */
+  public double getBranchingFactor() {
+    long forks = degreeHistogram[3] + degreeHistogram[4];
+    return forks == 0 ? 0 : (3.0 * degreeHistogram[3] + 4.0 * degreeHistogram[4]) / forks;
+  }
+
+  public int getColumns() {
+    return columns;
+  }
+
+  private static IntStream rowStream(int rows, boolean parallel) {
+    IntStream stream = IntStream.range(0, rows);
+    return parallel ? stream.parallel() : stream;
+  }
+
+  // Проходы всех ячеек. Стены читаются один раз, а обходы дальше работают только с массивом
+  private static byte[] passages(PerfectMaze maze, boolean parallel) {
+    int rows = maze.getRows(), columns = maze.getColumns();
+    byte[] passages = new byte[rows * columns];
+    rowStream(rows, parallel).forEach(row -> {
+      for (int column = 0, cell = row * columns; column < columns; column++, cell++) {
+        int open = 0;
+        if (row > 0 && !maze.hasBottomWall(cell - columns))
+          open |= UP;
+        if (column < columns - 1 && !maze.hasRightWall(cell))
+          open |= RIGHT;
+        if (row < rows - 1 && !maze.hasBottomWall(cell))
+          open |= DOWN;
+        if (column > 0 && !maze.hasRightWall(cell - 1))
+          open |= LEFT;
+        passages[cell] = (byte) open;
+      }
+    });
+    return passages;
+  }
+
+  /**
+   * Обход в ширину от <code>source</code>: расстояния до всех ячеек пишутся в
+   * <code>distances</code>
+   * @return самая далекая от <code>source</code> ячейка
+   */
+  private static int bfs(byte[] passages, int columns, int source, int[] distances, int[] queue) {
+    Arrays.fill(distances, -1);
+    distances[source] = 0;
+    queue[0] = source;
+    int head = 0, tail = 1;
+    while (head < tail) {
+      int cell = queue[head++];
+      int next = distances[cell] + 1;
+      int open = passages[cell];
+      if ((open & UP) != 0 && distances[cell - columns] < 0) {
+        distances[cell - columns] = next;
+        queue[tail++] = cell - columns;
+      }
+      if ((open & RIGHT) != 0 && distances[cell + 1] < 0) {
+        distances[cell + 1] = next;
+        queue[tail++] = cell + 1;
+      }
+      if ((open & DOWN) != 0 && distances[cell + columns] < 0) {
+        distances[cell + columns] = next;
+        queue[tail++] = cell + columns;
+      }
+      if ((open & LEFT) != 0 && distances[cell - 1] < 0) {
+        distances[cell - 1] = next;
+        queue[tail++] = cell - 1;
+      }
+    }
+    if (tail != distances.length)
+      throw new IllegalArgumentException("maze is not connected, reachable cells: " + tail);
+    // последняя ячейка в очереди - одна из самых далеких
+    return queue[tail - 1];
+  }
+}
@@ -0,0 +1,28 @@
+package domain.algorithm;
+
+import domain.model.PerfectMaze;
+import domain.structures.WallStorage;
+
+/**
+ * Генератор идеальных лабиринтов. Реализации создают один и тот же {@link PerfectMaze} и
+ * отличаются только скоростью, памятью и видом лабиринта (см. {@link GenerationAlgorithm})<br>
+ * <br>
+ *
+ * Размеры, хранилище и источник случайных чисел задаются при создании генератора. Генератор
+ * можно использовать повторно, но не из нескольких потоков одновременно
+ */
+public interface MazeGenerator {
+  /**
+   * Новый лабиринт в хранилище, которое соответствует <code>StorageBackend</code> генератора
+   * @throws IllegalArgumentException для <code>TILED</code>: такой лабиринт генерируется в файл
+   *     через {@link #create(WallStorage)} и <code>TiledMazeFormat.create(...)</code>
+   */
+  PerfectMaze create();
+
+  /**
+   * То же, что и {@link #create()}, но стены пишутся в переданное хранилище
+   * @param walls хранилище на <code>rows * columns</code> ячеек. Прежнее содержимое
+   *     перезаписывается
+   */
+  PerfectMaze create(WallStorage walls);
+}
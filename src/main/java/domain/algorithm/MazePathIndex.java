@@ -0,0 +1,197 @@
+package domain.algorithm;
+
+import domain.model.PerfectMaze;
+import domain.util.ArgumentCheckerUtil;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Индекс для быстрых запросов пути между любыми двумя ячейками лабиринта<br><br>
+ *
+ * Идеальный лабиринт - это остовное дерево, поэтому путь между двумя ячейками единственный и
+ * проходит через их наименьшего общего предка (LCA). Индекс строится один раз за O(cells):
+ * дерево подвешивается за ячейку <code>0</code> (обходом в ширину), для каждой ячейки
+ * запоминаются родитель, глубина и указатель-прыжок на предка. Прыжки устроены так, что подъем
+ * на любую глубину занимает O(log n) шагов, а памяти нужно всего три <code>int</code> на ячейку
+ * (в отличие от двоичного подъема с <code>log n</code> предками на ячейку)<br><br>
+ *
+ * После построения:<br>
+ * - длина пути - O(log n)<br>
+ * - сам путь - O(log n + длина пути)<br><br>
+ *
+ * Индекс неизменяемый, поэтому его можно без блокировок использовать из нескольких потоков.
+ * Если лабиринт несвязный (например, загружен из файла), то каждая компонента подвешивается за
+ * свою ячейку, и для ячеек из разных компонент путь не находится
+ */
+public class MazePathIndex {
+  private final int columns;
+  private final int cells;
+  private final int[] parents; // у корня родитель - он сам
+  private final int[] depths;
+  private final int[] jumps; // предок, к которому можно прыгнуть за один шаг
+
+  public MazePathIndex(PerfectMaze maze) {
+    if (maze.getCells() > PerfectMazeDFS.MAX_INDEXED_CELLS)
+      throw new UnsupportedOperationException(
+          "maze is too large for int cell indices, cells: " + maze.getCells());
+    columns = maze.getColumns();
+    cells = (int) maze.getCells();
+    parents = new int[cells];
+    depths = new int[cells];
+    jumps = new int[cells];
+    build(maze);
+  }
+
+  /**
+   * Длина пути (количество переходов) между ячейками
+   * @return количество переходов или <code>-1</code>, если пути нет
+   */
+  public int distance(int from, int to) {
+    int ancestor = lowestCommonAncestor(from, to);
+    if (ancestor < 0)
+      return -1;
+    return depths[from] + depths[to] - 2 * depths[ancestor];
+  }
+
+  /**
+   * Наименьший общий предок двух ячеек в подвешенном дереве
+   * @return индекс ячейки или <code>-1</code>, если ячейки в разных компонентах
+   */
+  public int lowestCommonAncestor(int first, int second) {
+    checkCell(first);
+    checkCell(second);
+    if (depths[first] < depths[second]) {
+      int tmp = first;
+      first = second;
+      second = tmp;
+    }
+
+    // поднимаем более глубокую ячейку на глубину второй
+    int depth = depths[second];
+    while (depths[first] > depth) {
+      first = depths[jumps[first]] >= depth ? jumps[first] : parents[first];
+    }
+
+    // глубины равны, значит и прыжки у обеих ячеек на одну глубину
+    while (first != second) {
+      if (parents[first] == first)
+        return -1; // дошли до корней разных компонент
+      if (jumps[first] != jumps[second]) {
+        first = jumps[first];
+        second = jumps[second];
+      } else {
+        first = parents[first];
+        second = parents[second];
+      }
+    }
+    return first;
+  }
+
+  /**
+   * Путь между ячейками, заданными индексами <code>row * columns + column</code>
+   * @return индексы ячеек пути от <code>start</code> до <code>end</code> включительно или null,
+   *     если пути нет
+   */
+  public int[] findPathIndices(int start, int end) {
+    int ancestor = lowestCommonAncestor(start, end);
+    if (ancestor < 0)
+      return null;
+
+    int[] path = new int[depths[start] + depths[end] - 2 * depths[ancestor] + 1];
+    int head = 0, tail = path.length - 1;
+    for (int cell = start; cell != ancestor; cell = parents[cell]) {
+      path[head++] = cell;
+    }
+    for (int cell = end; cell != ancestor; cell = parents[cell]) {
+      path[tail--] = cell;
+    }
+    path[head] = ancestor;
+    return path;
+  }
+
+  /**
+   * То же, что и {@link PerfectMazeDFS#findPath(Point, Point)}, но без обхода лабиринта
+   */
+  public List<Point> findPath(Point start, Point end) {
+    int[] path = findPathIndices(cellIndex(start), cellIndex(end));
+    if (path == null)
+      return null;
+
+    List<Point> points = new ArrayList<>(path.length);
+    for (int cell : path) {
+      points.add(new Point(cell % columns, cell / columns));
+    }
+    return points;
+  }
+
+  public int getParent(int cell) {
+    return parents[cell];
+  }
+
+  public int getDepth(int cell) {
+    return depths[cell];
+  }
+
+  // Подвешивание дерева обходом в ширину. Массив order служит очередью обхода
+  private void build(PerfectMaze maze) {
+    int rows = maze.getRows();
+    int[] order = new int[cells];
+    boolean[] visited = new boolean[cells];
+    int head = 0, tail = 0;
+
+    for (int root = 0; root < cells; root++) {
+      if (visited[root])
+        continue;
+      visited[root] = true;
+      parents[root] = root;
+      jumps[root] = root;
+      order[tail++] = root;
+
+      while (head < tail) {
+        int current = order[head++];
+        int row = current / columns, column = current % columns;
+
+        if (row > 0 && !maze.hasBottomWall(current - columns))
+          tail = attach(visited, order, tail, current, current - columns);
+        if (column < columns - 1 && !maze.hasRightWall(current))
+          tail = attach(visited, order, tail, current, current + 1);
+        if (row < rows - 1 && !maze.hasBottomWall(current))
+          tail = attach(visited, order, tail, current, current + columns);
+        if (column > 0 && !maze.hasRightWall(current - 1))
+          tail = attach(visited, order, tail, current, current - 1);
+      }
+    }
+  }
+
+  private int attach(boolean[] visited, int[] order, int tail, int parent, int child) {
+    if (visited[child])
+      return tail;
+    visited[child] = true;
+    parents[child] = parent;
+    depths[child] = depths[parent] + 1;
+
+    // прыжок через два одинаковых прыжка родителя дает прыжки длины 1, 3, 7, 15...
+    int jump = jumps[parent];
+    int jumpOfJump = jumps[jump];
+    if (depths[parent] - depths[jump] == depths[jump] - depths[jumpOfJump]) {
+      jumps[child] = jumpOfJump;
+    } else {
+      jumps[child] = parent;
+    }
+
+    order[tail] = child;
+    return tail + 1;
+  }
+
+  private int cellIndex(Point point) {
+    ArgumentCheckerUtil.checkIndexBounds(point.x, columns);
+    ArgumentCheckerUtil.checkIndexBounds(point.y, cells / columns);
+    return point.y * columns + point.x;
+  }
+
+  private void checkCell(int cell) {
+    if (cell < 0 || cell >= cells)
+      throw new ArrayIndexOutOfBoundsException("cell index is out of range, value: " + cell);
+  }
+}
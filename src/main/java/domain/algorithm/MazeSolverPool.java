@@ -0,0 +1,63 @@
+package domain.algorithm;
+
+import domain.model.PerfectMaze;
+import java.awt.*;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Пул решателей {@link PerfectMazeDFS}, привязанный к одному лабиринту. Каждый решатель хранит
+ * свои рабочие массивы, поэтому при частых запросах к одному лабиринту они создаются один раз на
+ * каждый одновременно работающий поток, а не на каждый запрос<br><br>
+ *
+ * Пул потокобезопасный. В отличие от <code>ThreadLocal</code> он не создает новых массивов для
+ * каждого нового потока, так что подходит и для виртуальных потоков
+ */
+public class MazeSolverPool {
+  private final PerfectMaze maze;
+  private final ConcurrentLinkedQueue<PerfectMazeDFS> idleSolvers = new ConcurrentLinkedQueue<>();
+
+  public MazeSolverPool(PerfectMaze maze) {
+    this.maze = maze;
+  }
+
+  public PerfectMaze getMaze() {
+    return maze;
+  }
+
+  /**
+   * Взять решатель из пула. После использования его нужно вернуть через {@link #release}
+   */
+  public PerfectMazeDFS acquire() {
+    PerfectMazeDFS solver = idleSolvers.poll();
+    return solver != null ? solver : new PerfectMazeDFS(maze);
+  }
+
+  public void release(PerfectMazeDFS solver) {
+    idleSolvers.offer(solver);
+  }
+
+  /**
+   * См. {@link PerfectMazeDFS#findPath(Point, Point)}
+   */
+  public List<Point> findPath(Point start, Point end) {
+    PerfectMazeDFS solver = acquire();
+    try {
+      return solver.findPath(start, end);
+    } finally {
+      release(solver);
+    }
+  }
+
+  /**
+   * См. {@link PerfectMazeDFS#findPathIndices(int, int)}
+   */
+  public int[] findPathIndices(int start, int end) {
+    PerfectMazeDFS solver = acquire();
+    try {
+      return solver.findPathIndices(start, end);
+    } finally {
+      release(solver);
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package domain.algorithm;
+
+import java.awt.*;
+import java.util.List;
+
+/**
+ * Поиск пути в лабиринте. В идеальном лабиринте путь между двумя ячейками единственный, поэтому
+ * все реализации возвращают один и тот же путь и отличаются только тем, сколько ячеек
+ * просматривают по дороге (см. {@link PathFinderStrategy})<br><br>
+ *
+ * Реализации переиспользуют рабочие массивы между запросами и не потокобезопасны: каждому потоку
+ * нужен свой экземпляр
+ */
+public interface PathFinder {
+  /**
+   * Поиск пути от <code>start</code> до <code>end</code>
+   * @param start координата начала пути (<code>Point(x, y)</code>)
+   * @param end координата конца пути (<code>Point(x, y)</code>)
+   * @return путь в координатах от <code>start</code> до <code>end</code> включительно или null,
+   *     если путь не найден
+   */
+  List<Point> findPath(Point start, Point end);
+
+  /**
+   * Поиск пути между ячейками, заданными индексами <code>row * columns + column</code>
+   * @return индексы ячеек пути от <code>start</code> до <code>end</code> включительно или null,
+   *     если путь не найден
+   */
+  int[] findPathIndices(int start, int end);
+
+  /**
+   * Наблюдатель за следующими запросами или null, чтобы его убрать
+   */
+  void setListener(SolverListener listener);
+}
@@ -0,0 +1,54 @@
+package domain.algorithm;
+
+import domain.model.PerfectMaze;
+
+/**
+ * Доступные алгоритмы поиска пути<br><br>
+ *
+ * <code>DFS</code> - поиск в глубину ({@link PerfectMazeDFS}). Идет по коридорам в
+ * фиксированном порядке направлений и до цели может обойти почти весь лабиринт, зато работает на
+ * лабиринтах любого размера, в том числе больше кучи<br>
+ * <code>BIDIRECTIONAL_BFS</code> - поиск в ширину одновременно от обоих концов
+ * ({@link BidirectionalBfsPathFinder}). Просматривает ячейки не дальше половины пути от каждого
+ * конца, так что хорош для близких точек<br>
+ * <code>A_STAR</code> - A* с манхэттенским расстоянием до цели ({@link AStarPathFinder}).
+ * Сначала идет по коридорам, которые ведут к цели. Коридоры идеального лабиринта сильно
+ * петляют, и оценка часто ошибается, поэтому выигрыш у A* меньше, чем у двунаправленного
+ * поиска, а куча делает каждую ячейку дороже<br><br>
+ *
+ * Замеры (<code>PathFinderStrategyBenchmark</code>, 1000 x 1000): для близких точек
+ * двунаправленный поиск в сотню раз быстрее DFS, для далеких - примерно в полтора раза
+ */
+public enum PathFinderStrategy {
+  DFS("DFS") {
+    @Override
+    public PathFinder create(PerfectMaze maze) {
+      return new PerfectMazeDFS(maze);
+    }
+  },
+  BIDIRECTIONAL_BFS("Bidirectional BFS") {
+    @Override
+    public PathFinder create(PerfectMaze maze) {
+      return new BidirectionalBfsPathFinder(maze);
+    }
+  },
+  A_STAR("A*") {
+    @Override
+    public PathFinder create(PerfectMaze maze) {
+      return new AStarPathFinder(maze);
+    }
+  };
+
+  private final String title;
+
+  PathFinderStrategy(String title) {
+    this.title = title;
+  }
+
+  public abstract PathFinder create(PerfectMaze maze);
+
+  @Override
+  public String toString() {
+    return title;
+  }
+}
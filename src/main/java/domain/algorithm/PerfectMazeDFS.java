@@ -1,27 +1,75 @@
 package domain.algorithm;
 
-import domain.constants.Constants;
+import domain.metrics.MazeMetrics;
+import domain.metrics.Metrics;
 import domain.model.PerfectMaze;
+import domain.util.ArgumentCheckerUtil;
 import java.awt.*;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
- * Реализация алгоритма поиска в глубину
+ * Реализация алгоритма поиска в глубину<br><br>
+ *
+ * Ячейки адресуются индексами (<code>row * columns + column</code>), а стек обхода одновременно
+ * является текущим путем от <code>start</code>, поэтому отдельная таблица родителей не нужна.
+ * Если количество ячеек помещается в массив, то используется
+ * {@link #findPathIndices(int, int)} на массивах <code>int</code>, который не создает объектов
+ * на посещенные ячейки: посещенные ячейки отмечаются эпохой в <code>int[]</code> (см. ниже), и
+ * вместе со стеком и направлениями это около 9 байт на ячейку лабиринта. Иначе
+ * используются индексы <code>long</code>, посещенные ячейки хранятся в битовом массиве
+ * <code>long[]</code> (1 бит на ячейку), и поиск работает даже на лабиринтах, где количество
+ * ячеек превышает <code>Integer.MAX_VALUE</code>
+ * <br><br>
+ *
+ * Если стены подгружаются с диска ({@link PerfectMaze#isPaged()}), то {@link #findPath} не
+ * выделяет массивов на все ячейки: посещенные ячейки не хранятся вовсе, а памяти требуется
+ * O(длина пути). Так ищутся пути в лабиринтах больше кучи<br><br>
+ *
+ * Рабочие массивы {@link #findPathIndices(int, int)} выделяются один раз и переиспользуются между
+ * запросами. Посещенные ячейки отмечаются номером запроса (эпохой), поэтому очищать массивы
+ * не нужно, и повторный запрос стоит столько, сколько ячеек он действительно обошел. Из-за этого
+ * экземпляр не потокобезопасный: для параллельных запросов есть {@link MazeSolverPool}
  */
-public class PerfectMazeDFS {
-  private final int[][] rightWallsMatrix;
-  private final int[][] bottomWallsMatrix;
+public class PerfectMazeDFS implements PathFinder {
+  // максимальное количество ячеек для поиска на массивах int
+  public static final long MAX_INDEXED_CELLS = Integer.MAX_VALUE - 8;
+
+  private static final int INITIAL_STACK_SIZE = 64;
+  // направления обхода: верх, право, низ, лево
+  private static final int UP = 0;
+  private static final int RIGHT = 1;
+  private static final int DOWN = 2;
+  private static final int LEFT = 3;
+  private static final int DIRECTIONS = 4;
+
+  private final PerfectMaze maze;
   private final int rows;
   private final int columns;
 
+  // рабочие массивы для findPathIndices, создаются при первом запросе
+  private int[] visitedEpochs;
+  private int[] stack;
+  private byte[] directions;
+  private int epoch;
+  private SolverListener listener;
+
   public PerfectMazeDFS(PerfectMaze maze) {
-    rightWallsMatrix = maze.getRightWallsMatrix();
-    bottomWallsMatrix = maze.getBottomWallsMatrix();
+    this.maze = maze;
     rows = maze.getRows();
     columns = maze.getColumns();
   }
 
+  /**
+   * Наблюдатель получает каждую ячейку, в которую вошел поиск, и каждую, из которой он вернулся
+   * в тупике
+   */
+  @Override
+  public void setListener(SolverListener listener) {
+    this.listener = listener;
+  }
+
   /**
    * Поиск пути от <code>start</code> до <code>end</code>.
    * @param start координата начала пути (<code>Point(x, y)</code>)
@@ -30,79 +78,234 @@ public class PerfectMazeDFS {
    *     возвращается
    * весь путь в координатах от <code>start</code> до <code>end</code>
    */
+  @Override
   public List<Point> findPath(Point start, Point end) {
-    boolean[][] visited = new boolean[rows][columns];
-    // Хэш-таблица для восстановления пути. Key - текущая точка, Value - родитель
-    Map<Point, Point> parents = new HashMap<>();
-    // Стек для хранения всех точек для обхода
-    Stack<Point> stack = new Stack<>();
+    checkPoint(start);
+    checkPoint(end);
+    if (maze.isPaged())
+      return findPathLarge(maze.cellIndex(start.y, start.x), maze.cellIndex(end.y, end.x), false);
+    if (maze.getCells() <= MAX_INDEXED_CELLS) {
+      int[] path = findPathIndices(
+          (int) maze.cellIndex(start.y, start.x), (int) maze.cellIndex(end.y, end.x));
+      return path == null ? null : toPoints(path);
+    }
+    return findPathLarge(maze.cellIndex(start.y, start.x), maze.cellIndex(end.y, end.x), true);
+  }
+
+  /**
+   * Поиск пути между ячейками, заданными индексами <code>row * columns + column</code>. Память
+   * выделяется только под результат (и под рабочие массивы при первом запросе), на каждую
+   * посещенную ячейку - ничего
+   * @param start индекс ячейки начала пути
+   * @param end индекс ячейки конца пути
+   * @return индексы ячеек пути от <code>start</code> до <code>end</code> включительно или null,
+   *     если путь не найден
+   */
+  @Override
+  public int[] findPathIndices(int start, int end) {
+    if (maze.getCells() > MAX_INDEXED_CELLS)
+      throw new UnsupportedOperationException(
+          "maze is too large for int cell indices, cells: " + maze.getCells());
+    int cells = (int) maze.getCells();
+    checkCell(start, cells);
+    checkCell(end, cells);
 
-    stack.push(start);
+    MazeMetrics metrics = Metrics.get();
+    // счетчики для метрик ведутся, только если метрики включены
+    boolean measured = metrics.isEnabled();
+    long startTime = measured ? System.nanoTime() : 0;
+    int visitedCount = 1, maxTop = 0;
 
-    while (!stack.isEmpty()) {
-      Point current = stack.pop();
+    int epoch = nextEpoch(cells);
+    int[] visitedEpochs = this.visitedEpochs;
+    // Стек ячеек - это текущий путь от start, а directions - следующее направление для каждой
+    int[] stack = this.stack;
+    byte[] directions = this.directions;
+    int top = 0;
 
-      // уже посещена, пофиг, пропускаем
-      if (visited[current.y][current.x])
+    stack[0] = start;
+    directions[0] = 0;
+    visitedEpochs[start] = epoch;
+    SolverListener listener = this.listener;
+    if (listener != null)
+      listener.cellVisited(start);
+    int[] path = null;
+
+    while (top >= 0) {
+      int current = stack[top];
+
+      if (current == end) {
+        path = Arrays.copyOf(stack, top + 1);
+        break;
+      }
+
+      int direction = directions[top]++;
+      // все соседи просмотрены, возвращаемся назад
+      if (direction == DIRECTIONS) {
+        if (listener != null)
+          listener.cellBacktracked(current);
+        --top;
         continue;
+      }
+
+      int neighbour = (int) getNeighbour(current, direction);
+      // если не посетили в этом запросе, то идем дальше в глубину
+      if (neighbour >= 0 && visitedEpochs[neighbour] != epoch) {
+        visitedEpochs[neighbour] = epoch;
+        stack[++top] = neighbour;
+        directions[top] = 0;
+        if (measured) {
+          ++visitedCount;
+          maxTop = Math.max(maxTop, top);
+        }
+        if (listener != null)
+          listener.cellVisited(neighbour);
+      }
+    }
+
+    if (measured)
+      metrics.pathSearched(visitedCount, maxTop + 1, System.nanoTime() - startTime);
+    return path;
+  }
 
-      // отмечаем как посещенную
-      visited[current.y][current.x] = true;
+  /**
+   * Перевод пути из индексов ячеек в координаты (<code>Point(x, y)</code>)
+   */
+  public List<Point> toPoints(int[] path) {
+    List<Point> points = new ArrayList<>(path.length);
+
+    for (int cell : path) {
+      points.add(new Point(cell % columns, cell / columns));
+    }
+
+    return points;
+  }
+
+  // Номер нового запроса. Массивы очищаются только при переполнении счетчика
+  private int nextEpoch(int cells) {
+    if (visitedEpochs == null) {
+      visitedEpochs = new int[cells];
+      stack = new int[cells];
+      directions = new byte[cells];
+    }
+    if (++epoch == 0) {
+      Arrays.fill(visitedEpochs, 0);
+      epoch = 1;
+    }
+    return epoch;
+  }
+
+  // То же, что и findPathIndices, но на индексах long для очень больших лабиринтов.
+  // Без trackVisited битового массива посещенных ячеек нет: в идеальном лабиринте (дереве)
+  // непосещенный сосед - любой, кроме предыдущей ячейки пути, так что памяти нужно O(длина пути)
+  private List<Point> findPathLarge(long startCell, long endCell, boolean trackVisited) {
+    MazeMetrics metrics = Metrics.get();
+    boolean measured = metrics.isEnabled();
+    long startTime = measured ? System.nanoTime() : 0;
+    long visitedCount = 1;
+    int maxTop = 0;
+
+    long[] visited = trackVisited ? new long[(int) ((maze.getCells() + 63) >>> 6)] : null;
+    long[] stack = new long[INITIAL_STACK_SIZE];
+    byte[] directions = new byte[INITIAL_STACK_SIZE];
+    int top = 0;
 
-      if (current.equals(end)) {
-        return getPath(start, end, parents);
+    stack[0] = startCell;
+    if (visited != null)
+      markVisited(visited, startCell);
+    SolverListener listener = this.listener;
+    if (listener != null)
+      listener.cellVisited(startCell);
+    List<Point> path = null;
+
+    while (top >= 0) {
+      long current = stack[top];
+
+      if (current == endCell) {
+        path = getPath(stack, top);
+        break;
+      }
+
+      int direction = directions[top]++;
+      if (direction == DIRECTIONS) {
+        if (listener != null)
+          listener.cellBacktracked(current);
+        --top;
+        continue;
       }
 
-      List<Point> neighbours = getNeighbours(current);
-      for (Point neighbour : neighbours) {
-        // если не посетили, нужно добавить в очередь для посещения
-        if (!visited[neighbour.y][neighbour.x]) {
-          stack.push(neighbour);
-          // отмечаем соседние как ключи, а текущую ячейку - как родитель соседей
-          parents.put(neighbour, current);
+      long neighbour = getNeighbour(current, direction);
+      if (neighbour >= 0 && (visited != null
+          ? !isVisited(visited, neighbour)
+          : top == 0 || neighbour != stack[top - 1])) {
+        if (visited != null)
+          markVisited(visited, neighbour);
+        if (++top == stack.length) {
+          // путь в дереве не длиннее количества ячеек, а более длинный - значит, есть цикл
+          if (top > maze.getCells())
+            throw new IllegalStateException("maze is not perfect: it contains a cycle");
+          stack = Arrays.copyOf(stack, stack.length * 2);
+          directions = Arrays.copyOf(directions, directions.length * 2);
+        }
+        stack[top] = neighbour;
+        directions[top] = 0;
+        if (measured) {
+          ++visitedCount;
+          maxTop = Math.max(maxTop, top);
         }
+        if (listener != null)
+          listener.cellVisited(neighbour);
       }
     }
 
-    // путь не был найден, а это плохо и печально, дамы и господа!
-    return null;
+    if (measured)
+      metrics.pathSearched(visitedCount, maxTop + 1, System.nanoTime() - startTime);
+    // если путь не был найден, то это плохо и печально, дамы и господа!
+    return path;
   }
 
-  private List<Point> getNeighbours(Point current) {
-    int column = current.x, row = current.y;
-    List<Point> neighbours = new ArrayList<>();
+  // индекс соседа в направлении direction или -1, если туда не пройти
+  private long getNeighbour(long current, int direction) {
+    int column = (int) (current % columns);
 
-    // верх
-    if (row > 0 && bottomWallsMatrix[row - 1][column] == Constants.EMPTY)
-      neighbours.add(new Point(column, row - 1));
+    return switch (direction) {
+      case UP ->
+              current >= columns && !maze.hasBottomWall(current - columns) ? current - columns : -1;
+      case RIGHT ->
+              column < columns - 1 && !maze.hasRightWall(current) ? current + 1 : -1;
+      case DOWN ->
+              current / columns < rows - 1 && !maze.hasBottomWall(current) ? current + columns : -1;
+      case LEFT ->
+              column > 0 && !maze.hasRightWall(current - 1) ? current - 1 : -1;
+      default -> -1;
+    };
+  }
 
-    // право
-    if (column < columns - 1 && rightWallsMatrix[row][column] == Constants.EMPTY)
-      neighbours.add(new Point(column + 1, row));
+  private void checkPoint(Point point) {
+    ArgumentCheckerUtil.checkIndexBounds(point.x, columns);
+    ArgumentCheckerUtil.checkIndexBounds(point.y, rows);
+  }
 
-    // низ
-    if (row < rows - 1 && bottomWallsMatrix[row][column] == Constants.EMPTY)
-      neighbours.add(new Point(column, row + 1));
+  private static void checkCell(int cell, int cells) {
+    if (cell < 0 || cell >= cells)
+      throw new ArrayIndexOutOfBoundsException("cell index is out of range, value: " + cell);
+  }
 
-    // лево
-    if (column > 0 && rightWallsMatrix[row][column - 1] == Constants.EMPTY)
-      neighbours.add(new Point(column - 1, row));
+  private static boolean isVisited(long[] visited, long cell) {
+    return (visited[(int) (cell >>> 6)] & (1L << cell)) != 0;
+  }
 
-    return neighbours;
+  private static void markVisited(long[] visited, long cell) {
+    visited[(int) (cell >>> 6)] |= 1L << cell;
   }
 
-  private List<Point> getPath(Point start, Point end, Map<Point, Point> parents) {
-    Point current = end;
-    List<Point> path = new ArrayList<>();
+  private List<Point> getPath(long[] stack, int top) {
+    List<Point> path = new ArrayList<>(top + 1);
 
-    while (!current.equals(start)) {
-      path.add(current);
-      current = parents.get(current);
+    for (int i = 0; i <= top; i++) {
+      path.add(new Point((int) (stack[i] % columns), (int) (stack[i] / columns)));
     }
 
-    path.add(start);
-    Collections.reverse(path);
-
     return path;
   }
 }
@@ -1,31 +1,79 @@
 package domain.algorithm;
 
-import domain.constants.Constants;
+import domain.metrics.MazeMetrics;
+import domain.metrics.Metrics;
 import domain.model.PerfectMaze;
-import domain.structures.SetUnion;
+import domain.model.StorageBackend;
+import domain.structures.WallStorage;
 import domain.util.ArgumentCheckerUtil;
-import java.util.Random;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.random.RandomGenerator;
+
+/**
+ * Генератор идеальных лабиринтов алгоритмом Эллера<br><br>
+ *
+ * Генератор можно использовать повторно: каждый вызов <code>create()</code> заводит новое
+ * хранилище стен и новое состояние алгоритма ({@link EllerRowGenerator}), так что следующие
+ * лабиринты не зависят от предыдущих, а готовый лабиринт больше нигде не используется и его
+ * можно сразу передавать другим потокам. Источник случайных чисел общий для всех вызовов,
+ * поэтому одновременно вызывать методы одного генератора из разных потоков нельзя: каждому
+ * потоку нужен свой генератор<br><br>
+ *
+ * Другие алгоритмы генерации - в {@link GenerationAlgorithm}
+ */
+public class PerfectMazeGenerator implements MazeGenerator {
+  // минимальная высота полосы при параллельной генерации
+  private static final int MIN_STRIP_ROWS = 64;
+  // количество полос: хватает, чтобы равномерно загрузить до 16 потоков по 4 полосы на поток
+  private static final int STRIPS = 64;
 
-public class PerfectMazeGenerator {
   private final int rows;
   private final int columns;
-  private final Random random;
-  private final SetUnion setUnion;
-
-  private final int[][] rightWallsMatrix;
-  private final int[][] bottomWallsMatrix;
+  private final StorageBackend backend;
+  private final RandomGenerator random;
+  private GenerationListener listener;
 
   public PerfectMazeGenerator(int rows, int columns) {
-    ArgumentCheckerUtil.checkMazeSize(rows);
-    ArgumentCheckerUtil.checkMazeSize(columns);
-    this.rows = rows;
-    this.columns = columns;
+    this(rows, columns, StorageBackend.STANDARD);
+  }
 
-    random = new Random();
-    setUnion = new SetUnion(columns);
+  public PerfectMazeGenerator(int rows, int columns, StorageBackend backend) {
+    this(rows, columns, backend, new SplittableRandom());
+  }
+
+  /**
+   * Воспроизводимая генерация: новый генератор с тем же <code>seed</code> и размерами создает
+   * тот же лабиринт, поэтому вместо лабиринта можно хранить тройку (seed, rows, columns).
+   * <code>create()</code> и <code>createParallel()</code> дают разные лабиринты для одного
+   * <code>seed</code>, но результат <code>createParallel()</code> не зависит от размера пула
+   */
+  public PerfectMazeGenerator(int rows, int columns, StorageBackend backend, long seed) {
+    this(rows, columns, backend, new SplittableRandom(seed));
+  }
 
-    rightWallsMatrix = new int[rows][columns];
-    bottomWallsMatrix = new int[rows][columns];
+  /**
+   * @param backend хранилище, от которого зависят допустимые размеры лабиринта. Для лабиринтов
+   *     больше <code>Constants.MAX_SIZE_MAZE</code> нужно использовать
+   *     <code>StorageBackend.LARGE</code>. Общее количество ячеек проверяется только при
+   *     создании лабиринта в памяти: потоковая генерация ({@link #generate(RowSink)}) ничего не
+   *     хранит
+   * @param random источник случайных чисел. Генератор не потокобезопасный, поэтому
+   *     <code>random</code> не должен использоваться одновременно где-то еще. Если он реализует
+   *     <code>RandomGenerator.SplittableGenerator</code>, то при параллельной генерации полосы
+   *     получают независимые генераторы через <code>split()</code>
+   */
+  public PerfectMazeGenerator(
+      int rows, int columns, StorageBackend backend, RandomGenerator random) {
+    ArgumentCheckerUtil.checkMazeSize(rows, backend);
+    ArgumentCheckerUtil.checkMazeSize(columns, backend);
+    this.rows = rows;
+    this.columns = columns;
+    this.backend = backend;
+    this.random = random;
   }
 
   /**
@@ -36,24 +84,53 @@ public class PerfectMazeGenerator {
    * <code>0</code> - ни правой ни нижней стены<br>
    * <code>1</code> - только правая стена<br>
    * <code>2</code> - только нижняя стена<br>
-   * <code>3</code> - и правая и нижняя стена
+   * <code>3</code> - и правая и нижняя стена<br><br>
+   *
+   * Для <code>StorageBackend.OFF_HEAP</code> стены хранятся вне кучи, и лабиринт нужно закрыть
+   * ({@link PerfectMaze#close()})
    */
+  @Override
   public PerfectMaze create() {
-    int[] mazeRow = new int[columns];
-
-    for (int row = 0; row < rows; row++) {
-      randomRightWalls(mazeRow);
-      randomBottomWalls(mazeRow);
-      if (row != rows - 1) {
-        mazeRowToFields(row, mazeRow);
-        clearMazeRow(mazeRow);
-      } else {
-        processLastRow(mazeRow);
-        mazeRowToFields(row, mazeRow);
-      }
-    }
+    ArgumentCheckerUtil.checkMazeSize(rows, columns, backend);
+    return create(newWalls());
+  }
+
+  /**
+   * Наблюдатель за следующими генерациями или null, чтобы его убрать. Параллельная генерация
+   * ({@link #createParallel(ForkJoinPool)}) событий не создает
+   */
+  public void setListener(GenerationListener listener) {
+    this.listener = listener;
+  }
+
+  /**
+   * То же, что и {@link #create()}, но стены пишутся в переданное хранилище, например в файл из
+   * плиток ({@link domain.structures.TiledWalls}) для лабиринтов больше кучи. Строки пишутся по
+   * порядку, поэтому для плиток хватает кэша на одну полосу плиток по ширине лабиринта
+   * @param walls пустое хранилище на <code>rows * columns</code> ячеек
+   */
+  @Override
+  public PerfectMaze create(WallStorage walls) {
+    return create(walls, (row, mazeRow) -> {});
+  }
+
+  /**
+   * То же, что и {@link #create(WallStorage)}, но каждая строка после записи в хранилище
+   * передается в <code>progress</code>, например для отображения хода генерации. Строки с
+   * меньшими номерами к этому моменту уже записаны. Исключение из <code>progress</code>
+   * прерывает генерацию
+   */
+  public PerfectMaze create(WallStorage walls, RowSink progress) {
+    if (walls.getCells() != (long) rows * columns)
+      throw new IllegalArgumentException(
+          "walls do not match maze size, cells: " + walls.getCells());
 
-    return new PerfectMaze(rows, columns, rightWallsMatrix, bottomWallsMatrix);
+    generate((row, mazeRow) -> {
+      mazeRowToFields(walls, row, mazeRow);
+      progress.acceptRow(row, mazeRow);
+    });
+
+    return new PerfectMaze(rows, columns, walls);
   }
 
   /**
@@ -61,149 +138,114 @@ public class PerfectMazeGenerator {
    * терминале
    */
   public PerfectMaze createAndShow() {
-    int[] mazeRow = new int[columns];
-
-    for (int row = 0; row < rows; row++) {
-      randomRightWalls(mazeRow);
-      randomBottomWalls(mazeRow);
-      if (row != rows - 1) {
-        mazeRowToFields(row, mazeRow);
-        printMazeRow(mazeRow);
-        clearMazeRow(mazeRow);
-      } else {
-        processLastRow(mazeRow);
-        mazeRowToFields(row, mazeRow);
-        printMazeRow(mazeRow);
-      }
-    }
-
-    return new PerfectMaze(rows, columns, rightWallsMatrix, bottomWallsMatrix);
+    ArgumentCheckerUtil.checkMazeSize(rows, columns, backend);
+    return create(newWalls(), new ConsoleRowSink());
   }
 
-  private void randomRightWalls(int[] mazeRow) {
-    for (int i = 0; i < columns - 1; i++) {
-      if (setUnion.areConnected(i, i + 1)) { // если в едином множестве, то ставим правую стенку
-        mazeRow[i] = Constants.RIGHT_WALL;
-      } else { // если не в одном множестве
-        int value = randomZeroOrOne();
-
-        if (value == Constants.RIGHT_WALL) { // просто ставим стенку
-          mazeRow[i] = Constants.RIGHT_WALL;
-        } else { // стенку не ставим, объединяем множества в одно
-          setUnion.union(i, i + 1);
-        }
-      }
-    }
-    mazeRow[columns - 1] = Constants.RIGHT_WALL;
-  }
+  /**
+   * Потоковая генерация: каждая готовая строка сразу передается в <code>sink</code>, а сам
+   * лабиринт нигде не хранится. Памяти требуется O(columns) при любом количестве строк, поэтому
+   * так можно писать сколь угодно высокие лабиринты прямо в файл или в сокет
+   * @param sink получатель строк в формате <code>mazeRow</code> (см. {@link #create()})
+   */
+  public void generate(RowSink sink) {
+    MazeMetrics metrics = Metrics.get();
+    long start = metrics.isEnabled() ? System.nanoTime() : 0;
 
-  private void randomBottomWalls(int[] bottomBoards) {
-    int emptyCount = 0;
+    EllerRowGenerator generator = new EllerRowGenerator(columns, random, listener);
+    generator.generate(0, rows, sink);
 
-    for (int i = 0; i < columns; i++) {
-      // Ячейка лабиринта не одна в своем множестве.
-      // А если одна, то мы нижнюю границу не ставим (то есть пропускаем итерацию)
-
-      if (!setUnion.isAlone(
-              i)) { // если множество состоит из одного элемента, то пропускаем итерацию
-        int value = randomZeroOrTwo();
-        if (value == Constants.EMPTY)
-          ++emptyCount;
-
-        boolean isLast = setUnion.isLastInSet(i);
-
-        // гарантия того, что хотя бы одна ячейка в множестве будет
-        // без нижней стены (в данном случае это уже последняя)
-        if (isLast && emptyCount == 0) {
-          continue;
-        }
-
-        // сумма, т.к. мы учитываем, стоит ли еще правая стенка тут, если да, то у нас уже
-        // число 3 в ячейке, а если нет, то число 2
-        bottomBoards[i] += value;
-        if (isLast)
-          emptyCount = 0;
-      }
-    }
+    if (metrics.isEnabled())
+      metrics.generated(rows, columns, generator.getUnionCount(), System.nanoTime() - start);
   }
 
-  // для генерации правых стенок (Constants.RIGHT_WALL)
-  private int randomZeroOrOne() {
-    return random.nextInt(0, 2);
-  }
-  // для генерации нижних стенок (Constants.BOTTOM_WALL)
-  private int randomZeroOrTwo() {
-    int val = randomZeroOrOne();
-    return val * 2;
+  /**
+   * То же, что и {@link #createParallel(ForkJoinPool)}, на общем пуле потоков
+   */
+  public PerfectMaze createParallel() {
+    return createParallel(ForkJoinPool.commonPool());
   }
 
-  private void mazeRowToFields(int rowNum, int[] mazeRow) {
-    for (int i = 0; i < columns; i++) {
-      switch (mazeRow[i]) {
-        case Constants.RIGHT_WALL ->
-                rightWallsMatrix[rowNum][i] = 1;
-        case Constants.BOTTOM_WALL ->
-                bottomWallsMatrix[rowNum][i] = 1;
-        case Constants.RIGHT_BOTTOM_WALLS -> {
-          rightWallsMatrix[rowNum][i] = 1;
-          bottomWallsMatrix[rowNum][i] = 1;
-        }
-      }
+  /**
+   * Параллельное создание идеального лабиринта на всех потоках <code>pool</code><br><br>
+   *
+   * Лабиринт делится на горизонтальные полосы, и каждая полоса независимо генерируется
+   * алгоритмом Эллера как отдельный идеальный лабиринт. Затем соседние полосы сшиваются: в нижней
+   * стене последней строки каждой полосы убирается одна случайная стенка. Два остовных дерева,
+   * соединенные одним ребром, - снова остовное дерево, поэтому результат остается связным и без
+   * циклов. Цена - сплошной горизонтальный коридор в последней строке каждой полосы<br><br>
+   *
+   * Высота полос зависит только от размеров лабиринта, а не от пула, поэтому лабиринт с тем же
+   * <code>seed</code> воспроизводится на любом количестве потоков. Она подобрана так, чтобы
+   * каждая полоса начиналась с нового слова {@link WallStorage}, поэтому потоки пишут в
+   * непересекающиеся слова без синхронизации
+   */
+  public PerfectMaze createParallel(ForkJoinPool pool) {
+    ArgumentCheckerUtil.checkMazeSize(rows, columns, backend);
+    int stripRows = stripRows();
+    if (stripRows >= rows)
+      return create();
+
+    MazeMetrics metrics = Metrics.get();
+    long start = metrics.isEnabled() ? System.nanoTime() : 0;
+
+    WallStorage walls = newWalls();
+    List<EllerRowGenerator> generators = new ArrayList<>();
+    List<ForkJoinTask<?>> strips = new ArrayList<>();
+    for (int firstRow = 0; firstRow < rows; firstRow += stripRows) {
+      int first = firstRow;
+      int height = Math.min(stripRows, rows - firstRow);
+      EllerRowGenerator generator = new EllerRowGenerator(columns, splitRandom());
+      generators.add(generator);
+      strips.add(pool.submit(() -> generator
+          .generate(first, height, (row, mazeRow) -> mazeRowToFields(walls, row, mazeRow))));
+    }
+    for (ForkJoinTask<?> strip : strips) {
+      strip.join();
     }
-  }
-
-  private void clearMazeRow(int[] mazeRow) {
-    for (int i = 0; i < columns; i++) {
 
-      boolean hasBottomWall = mazeRow[i] == Constants.BOTTOM_WALL || mazeRow[i] == Constants.RIGHT_BOTTOM_WALLS;
-      mazeRow[i] = Constants.EMPTY;
+    // сшиваем полосы: один проход вниз из последней строки каждой полосы
+    for (int lastRow = stripRows - 1; lastRow < rows - 1; lastRow += stripRows) {
+      walls.setBottomWall((long) lastRow * columns + random.nextInt(columns), false);
+    }
 
-      if (hasBottomWall) {
-        setUnion.disunion(i); // если нижняя граница, то нужно элемент удалить из его множества
+    if (metrics.isEnabled()) {
+      long unions = 0;
+      for (EllerRowGenerator generator : generators) {
+        unions += generator.getUnionCount();
       }
+      metrics.generated(rows, columns, unions, System.nanoTime() - start);
     }
+
+    return new PerfectMaze(rows, columns, walls);
   }
 
-  private void processLastRow(int[] mazeRow) {
-    for (int i = 0; i < columns - 1; i++) {
-      // Добавляем нижнюю стену всем
-      switch (mazeRow[i]) {
-        case Constants.EMPTY ->
-                mazeRow[i] = Constants.BOTTOM_WALL;
-        case Constants.RIGHT_WALL ->
-                mazeRow[i] = Constants.RIGHT_BOTTOM_WALLS;
-      }
+  private WallStorage newWalls() {
+    return GridMazeGenerator.newWalls(backend, (long) rows * columns);
+  }
 
-      // Если ячейки в разных множествах - убираем правую стену
-      if (!setUnion.areConnected(i, i + 1)) {
-        // Убираем правую стену, но оставляем нижнюю
-        if (mazeRow[i] == Constants.RIGHT_BOTTOM_WALLS) {
-          mazeRow[i] = Constants.BOTTOM_WALL;
-        }
-        // Если была только нижняя стена, она и остается
-        setUnion.union(i, i + 1);
-      }
-    }
-    mazeRow[columns - 1] = Constants.RIGHT_BOTTOM_WALLS;
+  private RandomGenerator splitRandom() {
+    if (random instanceof RandomGenerator.SplittableGenerator splittable)
+      return splittable.split();
+    return new SplittableRandom(random.nextLong());
   }
 
+  // Высота полосы: кратна выравниванию, чтобы полосы не делили слова хранилища
+  private int stripRows() {
+    int alignment = 32 / gcd(columns, 32);
+    int stripRows = Math.max(MIN_STRIP_ROWS, Math.ceilDiv(rows, STRIPS));
+    return Math.ceilDiv(stripRows, alignment) * alignment;
+  }
 
+  private static int gcd(int a, int b) {
+    return b == 0 ? a : gcd(b, a % b);
+  }
 
-  private void printMazeRow(int[] mazeRow) {
+  // коды mazeRow совпадают с парой бит ячейки в PackedWalls, поэтому пишем их как есть
+  private void mazeRowToFields(WallStorage walls, int rowNum, int[] mazeRow) {
+    long offset = (long) rowNum * columns;
     for (int i = 0; i < columns; i++) {
-      if (i == 0) System.out.print("|");
-      switch (mazeRow[i]) {
-        case Constants.EMPTY ->
-                System.out.print("  ");
-        case Constants.RIGHT_WALL ->
-                System.out.print(" |");
-        case Constants.BOTTOM_WALL ->
-                System.out.print("__");
-        case Constants.RIGHT_BOTTOM_WALLS ->
-                System.out.print("_|");
-      }
-
+      walls.setWalls(offset + i, mazeRow[i]);
     }
-    System.out.print("\n");
   }
 }
@@ -0,0 +1,51 @@
+package domain.algorithm;
+
+import domain.model.StorageBackend;
+import domain.structures.WallStorage;
+import java.util.random.RandomGenerator;
+
+/**
+ * Генерация рекурсивным возвратом (случайный поиск в глубину) без рекурсии: стек ячеек - массив
+ * <code>int</code>. Из ячейки на вершине стека проход ведет в случайного еще не посещенного
+ * соседа, а если таких нет, то ячейка снимается со стека<br><br>
+ *
+ * Лабиринт из длинных извилистых коридоров с редкими развилками и небольшим числом тупиков -
+ * самый "сложный" на вид. Памяти нужно 5 байт на ячейку: стек может дорасти до всех ячеек
+ */
+class RecursiveBacktrackerGenerator extends GridMazeGenerator {
+  RecursiveBacktrackerGenerator(
+      int rows, int columns, StorageBackend backend, RandomGenerator random) {
+    super(rows, columns, backend, random);
+  }
+
+  @Override
+  long carve(WallStorage walls) {
+    int cells = indexedCells(1);
+    boolean[] visited = new boolean[cells];
+    int[] stack = new int[cells];
+    int[] options = new int[DIRECTIONS];
+
+    int top = 0;
+    stack[0] = random.nextInt(cells);
+    visited[stack[0]] = true;
+    while (top >= 0) {
+      int cell = stack[top];
+      int count = 0;
+      for (int direction = 0; direction < DIRECTIONS; direction++) {
+        int next = neighbour(cell, direction);
+        if (next >= 0 && !visited[next])
+          options[count++] = next;
+      }
+      if (count == 0) {
+        --top;
+        continue;
+      }
+
+      int next = options[count == 1 ? 0 : random.nextInt(count)];
+      visited[next] = true;
+      removeWall(walls, cell, next);
+      stack[++top] = next;
+    }
+    return 0;
+  }
+}
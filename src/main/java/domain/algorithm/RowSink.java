@@ -0,0 +1,19 @@
+package domain.algorithm;
+
+/**
+ * Получатель строк лабиринта, которые выдает {@link PerfectMazeGenerator#generate(RowSink)} по
+ * мере генерации<br><br>
+ *
+ * Строка передается в формате <code>mazeRow</code>: для каждой ячейки код из
+ * {@link domain.constants.Constants} (<code>0</code> - стен нет, <code>1</code> - правая,
+ * <code>2</code> - нижняя, <code>3</code> - обе)
+ */
+@FunctionalInterface
+public interface RowSink {
+  /**
+   * @param row номер строки
+   * @param mazeRow коды стен ячеек строки. Массив переиспользуется генератором, поэтому после
+   *     возврата из метода его нельзя хранить - только копировать
+   */
+  void acceptRow(int row, int[] mazeRow);
+}
@@ -0,0 +1,41 @@
+package domain.algorithm;
+
+import domain.model.StorageBackend;
+import domain.structures.WallStorage;
+import java.util.random.RandomGenerator;
+
+/**
+ * Генерация алгоритмом Sidewinder: строка делится на случайные отрезки, внутри отрезка ячейки
+ * соединены проходами вправо, а из случайной ячейки каждого отрезка ведет один проход вниз.
+ * Последняя строка - сплошной коридор, который соединяет все отрезки. Как и двоичное дерево,
+ * пишет ячейки по порядку без рабочей памяти, но смещение слабее: длинные горизонтальные
+ * коридоры и путь вниз без подъемов от любой ячейки
+ */
+class SidewinderGenerator extends GridMazeGenerator {
+  SidewinderGenerator(int rows, int columns, StorageBackend backend, RandomGenerator random) {
+    super(rows, columns, backend, random);
+  }
+
+  @Override
+  long carve(WallStorage walls) {
+    for (int row = 0; row < rows - 1; row++) {
+      long first = (long) row * columns;
+      int runStart = 0;
+      for (int column = 0; column < columns; column++) {
+        if (column == columns - 1 || randomBit()) {
+          // отрезок закончен: проход вниз из случайной ячейки отрезка
+          walls.setBottomWall(first + runStart + random.nextInt(column - runStart + 1), false);
+          runStart = column + 1;
+        } else {
+          walls.setRightWall(first + column, false);
+        }
+      }
+    }
+
+    long last = (long) (rows - 1) * columns;
+    for (int column = 0; column < columns - 1; column++) {
+      walls.setRightWall(last + column, false);
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,21 @@
+package domain.algorithm;
+
+/**
+ * Наблюдатель за поиском пути ({@link PathFinder#setListener}), например для пошаговой
+ * анимации. Ячейки задаются индексами <code>row * columns + column</code>. Методы вызываются в
+ * потоке поиска, поэтому должны быть быстрыми<br><br>
+ *
+ * Если наблюдатель не задан, то поиск не создает событий и работает с полной скоростью
+ */
+public interface SolverListener {
+  /**
+   * Поиск дошел до ячейки
+   */
+  default void cellVisited(long cell) {}
+
+  /**
+   * Поиск вернулся из тупика: ячейка не лежит на пути. Так отчитывается только поиск в глубину
+   * ({@link PerfectMazeDFS})
+   */
+  default void cellBacktracked(long cell) {}
+}
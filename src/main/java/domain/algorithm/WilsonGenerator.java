@@ -0,0 +1,52 @@
+package domain.algorithm;
+
+import domain.model.StorageBackend;
+import domain.structures.WallStorage;
+import java.util.random.RandomGenerator;
+
+/**
+ * Генерация алгоритмом Уилсона: дерево начинается со случайной ячейки, а каждая ячейка вне
+ * дерева присоединяется к нему случайным блужданием со стиранием петель. Блуждание запоминает
+ * для каждой ячейки направление последнего выхода из нее, поэтому петли стираются сами:
+ * повторный выход перезаписывает направление. Когда блуждание доходит до дерева, путь по
+ * запомненным направлениям прорубается и добавляется в дерево<br><br>
+ *
+ * Дает равномерно распределенное остовное дерево - лабиринт без смещения, как у Краскала, но с
+ * другой фактурой. Первые блуждания длинные, пока дерево маленькое, поэтому это самый
+ * медленный из алгоритмов. Памяти нужен один байт на ячейку
+ */
+class WilsonGenerator extends GridMazeGenerator {
+  private static final byte IN_TREE = DIRECTIONS; // отметка ячейки в дереве вместо направления
+
+  WilsonGenerator(int rows, int columns, StorageBackend backend, RandomGenerator random) {
+    super(rows, columns, backend, random);
+  }
+
+  @Override
+  long carve(WallStorage walls) {
+    int cells = indexedCells(1);
+    byte[] exits = new byte[cells]; // направление последнего выхода или IN_TREE
+    exits[random.nextInt(cells)] = IN_TREE;
+
+    for (int cell = 0; cell < cells; cell++) {
+      // блуждание до дерева
+      for (int current = cell; exits[current] != IN_TREE; ) {
+        int direction, next;
+        do {
+          direction = randomBits(2);
+          next = neighbour(current, direction);
+        } while (next < 0);
+        exits[current] = (byte) direction;
+        current = next;
+      }
+      // путь без петель - в дерево
+      for (int current = cell; exits[current] != IN_TREE; ) {
+        int next = neighbour(current, exits[current]);
+        exits[current] = IN_TREE;
+        removeWall(walls, current, next);
+        current = next;
+      }
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,25 @@
+package domain.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("maze.Generation")
+@Label("Maze Generation")
+@Category("Maze")
+class GenerationEvent extends Event {
+  @Label("Rows")
+  int rows;
+
+  @Label("Columns")
+  int columns;
+
+  @Label("Unions")
+  long unions;
+
+  @Label("Elapsed")
+  @Timespan(Timespan.NANOSECONDS)
+  long elapsed;
+}
@@ -0,0 +1,27 @@
+package domain.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("maze.Io")
+@Label("Maze I/O")
+@Category("Maze")
+class IoEvent extends Event {
+  @Label("Format")
+  String format;
+
+  @Label("Write")
+  boolean write;
+
+  @Label("Bytes")
+  @DataAmount
+  long bytes;
+
+  @Label("Elapsed")
+  @Timespan(Timespan.NANOSECONDS)
+  long elapsed;
+}
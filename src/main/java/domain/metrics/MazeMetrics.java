@@ -0,0 +1,58 @@
+package domain.metrics;
+
+/**
+ * Получатель метрик генерации, поиска пути и ввода-вывода. Текущий получатель один на всю
+ * программу ({@link Metrics#get()}), по умолчанию это {@link #NOOP}<br><br>
+ *
+ * Метрики сообщаются один раз на вызов, после его завершения, а не на каждую ячейку. Если
+ * получатель выключен ({@link #isEnabled()}), то вызывающий код не замеряет даже время, так что
+ * выключенные метрики ничего не стоят
+ */
+public interface MazeMetrics {
+  /**
+   * Получатель, который ничего не делает
+   */
+  MazeMetrics NOOP = new MazeMetrics() {
+    @Override
+    public boolean isEnabled() {
+      return false;
+    }
+  };
+
+  default boolean isEnabled() {
+    return true;
+  }
+
+  /**
+   * Сгенерирован лабиринт (или полоса строк при потоковой генерации)
+   * @param unions количество объединений множеств в {@link domain.structures.SetUnion}
+   * @param nanos время генерации
+   */
+  default void generated(int rows, int columns, long unions, long nanos) {
+  }
+
+  /**
+   * Выполнен поиск пути
+   * @param visitedCells количество посещенных ячеек
+   * @param maxDepth наибольшая глубина стека обхода
+   * @param nanos время поиска
+   */
+  default void pathSearched(long visitedCells, int maxDepth, long nanos) {
+  }
+
+  /**
+   * Лабиринт загружен из файла
+   * @param format формат файла: <code>text</code>, <code>binary</code> или <code>archive</code>
+   * @param bytes прочитано байт
+   */
+  default void mazeRead(String format, long bytes, long nanos) {
+  }
+
+  /**
+   * Лабиринт сохранен в файл
+   * @param format формат файла, как в {@link #mazeRead}
+   * @param bytes записано байт
+   */
+  default void mazeWritten(String format, long bytes, long nanos) {
+  }
+}
@@ -0,0 +1,37 @@
+package domain.metrics;
+
+/**
+ * Накопленные метрики в JMX. Времена - в наносекундах
+ */
+public interface MazeMetricsMXBean {
+  boolean isEnabled();
+
+  /**
+   * Включение и выключение сбора метрик на работающей программе
+   */
+  void setEnabled(boolean enabled);
+
+  long getGeneratedMazes();
+
+  long getGeneratedCells();
+
+  long getGenerationNanos();
+
+  long getUnions();
+
+  long getPathSearches();
+
+  long getPathSearchNanos();
+
+  long getVisitedCells();
+
+  int getMaxStackDepth();
+
+  long getBytesRead();
+
+  long getBytesWritten();
+
+  long getIoNanos();
+
+  void reset();
+}
@@ -0,0 +1,192 @@
+package domain.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Получатель метрик, который суммирует их в счетчиках для JMX и пишет события JFR
+ * (<code>maze.Generation</code>, <code>maze.PathSearch</code>, <code>maze.Io</code>). События
+ * попадают в запись, только если она запущена, например
+ * <code>jcmd &lt;pid&gt; JFR.start</code><br><br>
+ *
+ * Счетчики потокобезопасны и не блокируют вызывающие потоки
+ */
+public class MazeMetricsRecorder implements MazeMetrics, MazeMetricsMXBean {
+  public static final String OBJECT_NAME = "domain.metrics:type=MazeMetrics";
+
+  private final LongAdder generatedMazes = new LongAdder();
+  private final LongAdder generatedCells = new LongAdder();
+  private final LongAdder generationNanos = new LongAdder();
+  private final LongAdder unions = new LongAdder();
+  private final LongAdder pathSearches = new LongAdder();
+  private final LongAdder pathSearchNanos = new LongAdder();
+  private final LongAdder visitedCells = new LongAdder();
+  private final LongAccumulator maxStackDepth = new LongAccumulator(Math::max, 0);
+  private final LongAdder bytesRead = new LongAdder();
+  private final LongAdder bytesWritten = new LongAdder();
+  private final LongAdder ioNanos = new LongAdder();
+
+  /**
+   * Регистрация нового получателя в JMX под именем {@link #OBJECT_NAME}. Сбор метрик остается
+   * выключенным, пока его не включат через {@link #setEnabled(boolean)}
+   */
+  public static MazeMetricsRecorder registerMBean() {
+    MazeMetricsRecorder recorder = new MazeMetricsRecorder();
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      ObjectName name = new ObjectName(OBJECT_NAME);
+      if (server.isRegistered(name))
+        server.unregisterMBean(name);
+      server.registerMBean(recorder, name);
+    } catch (JMException e) {
+      throw new IllegalStateException("Cannot register metrics MBean: " + e.getMessage(), e);
+    }
+    return recorder;
+  }
+
+  @Override
+  public boolean isEnabled() {
+    return Metrics.get() == this;
+  }
+
+  @Override
+  public void setEnabled(boolean enabled) {
+    if (enabled) {
+      Metrics.install(this);
+    } else if (isEnabled()) {
+      Metrics.install(null);
+    }
+  }
+
+  @Override
+  public void generated(int rows, int columns, long unions, long nanos) {
+    generatedMazes.increment();
+    generatedCells.add((long) rows * columns);
+    generationNanos.add(nanos);
+    this.unions.add(unions);
+
+    GenerationEvent event = new GenerationEvent();
+    if (event.shouldCommit()) {
+      event.rows = rows;
+      event.columns = columns;
+      event.unions = unions;
+      event.elapsed = nanos;
+      event.commit();
+    }
+  }
+
+  @Override
+  public void pathSearched(long visitedCells, int maxDepth, long nanos) {
+    pathSearches.increment();
+    pathSearchNanos.add(nanos);
+    this.visitedCells.add(visitedCells);
+    maxStackDepth.accumulate(maxDepth);
+
+    PathSearchEvent event = new PathSearchEvent();
+    if (event.shouldCommit()) {
+      event.visitedCells = visitedCells;
+      event.maxDepth = maxDepth;
+      event.elapsed = nanos;
+      event.commit();
+    }
+  }
+
+  @Override
+  public void mazeRead(String format, long bytes, long nanos) {
+    bytesRead.add(bytes);
+    io(format, false, bytes, nanos);
+  }
+
+  @Override
+  public void mazeWritten(String format, long bytes, long nanos) {
+    bytesWritten.add(bytes);
+    io(format, true, bytes, nanos);
+  }
+
+  private void io(String format, boolean write, long bytes, long nanos) {
+    ioNanos.add(nanos);
+
+    IoEvent event = new IoEvent();
+    if (event.shouldCommit()) {
+      event.format = format;
+      event.write = write;
+      event.bytes = bytes;
+      event.elapsed = nanos;
+      event.commit();
+    }
+  }
+
+  @Override
+  public long getGeneratedMazes() {
+    return generatedMazes.sum();
+  }
+
+  @Override
+  public long getGeneratedCells() {
+    return generatedCells.sum();
+  }
+
+  @Override
+  public long getGenerationNanos() {
+    return generationNanos.sum();
+  }
+
+  @Override
+  public long getUnions() {
+    return unions.sum();
+  }
+
+  @Override
+  public long getPathSearches() {
+    return pathSearches.sum();
+  }
+
+  @Override
+  public long getPathSearchNanos() {
+    return pathSearchNanos.sum();
+  }
+
+  @Override
+  public long getVisitedCells() {
+    return visitedCells.sum();
+  }
+
+  @Override
+  public int getMaxStackDepth() {
+    return (int) maxStackDepth.get();
+  }
+
+  @Override
+  public long getBytesRead() {
+    return bytesRead.sum();
+  }
+
+  @Override
+  public long getBytesWritten() {
+    return bytesWritten.sum();
+  }
+
+  @Override
+  public long getIoNanos() {
+    return ioNanos.sum();
+  }
+
+  @Override
+  public void reset() {
+    generatedMazes.reset();
+    generatedCells.reset();
+    generationNanos.reset();
+    unions.reset();
+    pathSearches.reset();
+    pathSearchNanos.reset();
+    visitedCells.reset();
+    maxStackDepth.reset();
+    bytesRead.reset();
+    bytesWritten.reset();
+    ioNanos.reset();
+  }
+}
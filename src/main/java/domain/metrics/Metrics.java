@@ -0,0 +1,23 @@
+package domain.metrics;
+
+/**
+ * Текущий получатель метрик. Его можно заменить в любой момент, в том числе из JMX
+ * ({@link MazeMetricsRecorder#setEnabled(boolean)}), без перезапуска программы
+ */
+public final class Metrics {
+  private static volatile MazeMetrics current = MazeMetrics.NOOP;
+
+  private Metrics() {
+  }
+
+  public static MazeMetrics get() {
+    return current;
+  }
+
+  /**
+   * @param metrics новый получатель. <code>null</code> - выключить метрики
+   */
+  public static void install(MazeMetrics metrics) {
+    current = metrics == null ? MazeMetrics.NOOP : metrics;
+  }
+}
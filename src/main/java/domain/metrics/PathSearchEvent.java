@@ -0,0 +1,22 @@
+package domain.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("maze.PathSearch")
+@Label("Maze Path Search")
+@Category("Maze")
+class PathSearchEvent extends Event {
+  @Label("Visited Cells")
+  long visitedCells;
+
+  @Label("Max Stack Depth")
+  int maxDepth;
+
+  @Label("Elapsed")
+  @Timespan(Timespan.NANOSECONDS)
+  long elapsed;
+}
@@ -1,11 +1,27 @@
 package domain.model;
 
+import domain.structures.OffHeapWalls;
+import domain.structures.PackedWalls;
+import domain.structures.WallStorage;
 import domain.util.ArgumentCheckerUtil;
 
 /**
  * Представитель идеального лабиринта (без зацикленностей и тупиков)<br>
- * Внутри класса лабиринт представлен в виде двух массивов. Из массива, содержащего данные о правых
- * стенах ячейки, и массива, содержащего данные о левых ячейках<br><br>
+ * Внутри класса стены хранятся в компактном виде ({@link WallStorage}): по два бита на ячейку -
+ * в куче ({@link PackedWalls}) или, например, в отображенном в память файле.
+ * Для совместимости доступны и две матрицы. Из массива, содержащего данные о правых стенах
+ * ячейки, и массива, содержащего данные о нижних стенах. Матрицы собираются заново при каждом
+ * обращении и только для совместимости: для больших лабиринтов следует использовать
+ * {@link #hasRightWall(int, int)} и {@link #hasBottomWall(int, int)}<br><br>
+ *
+ * Лабиринт неизменяемый: методов записи нет, матрицы - копии, а все поля final, поэтому
+ * лабиринт можно без копирования и синхронизации передавать в другие потоки и читать из них
+ * одновременно. Хранилище стен переходит во владение лабиринта: после передачи в конструктор
+ * его нельзя изменять<br><br>
+ *
+ * Если стены хранятся вне кучи ({@link OffHeapWalls}), то память освобождается не сборщиком
+ * мусора, а в {@link #close()}, поэтому такой лабиринт закрывают явно (try-with-resources), когда
+ * он больше не нужен. Для остальных хранилищ <code>close()</code> ничего не делает<br><br>
  *
  * Заполнение массива с данными о правых стенах:<br>
  * <code>0</code> - нет правой границы ( )<br>
@@ -15,28 +31,114 @@ import domain.util.ArgumentCheckerUtil;
  * <code>0</code> - нет нижней границы ( )<br>
  * <code>1</code> - есть нижняя граница (_)<br>
  */
-public class PerfectMaze {
+public final class PerfectMaze implements AutoCloseable {
   private final int rows; // количество строк в лабиринте
   private final int columns; // количество столбцов в лабиринте
-  private final int[][] rightWallsMatrix;
-  private final int[][] bottomWallsMatrix;
+  private final WallStorage walls;
 
+  /**
+   * Лабиринт из матриц стен. Матрицы копируются, поэтому их можно изменять и дальше
+   */
   public PerfectMaze(int rows, int columns, int[][] rightWallsMatrix, int[][] bottomWallsMatrix) {
-    ArgumentCheckerUtil.checkMazeSize(rows);
-    ArgumentCheckerUtil.checkMazeSize(columns);
+    this(rows, columns, packMatrices(rows, columns, rightWallsMatrix, bottomWallsMatrix));
+  }
+
+  /**
+   * @param walls хранилище на <code>rows * columns</code> ячеек. Не копируется, поэтому после
+   *     создания лабиринта в него нельзя писать
+   */
+  public PerfectMaze(int rows, int columns, WallStorage walls) {
+    ArgumentCheckerUtil.checkMazeSize(rows, StorageBackend.LARGE);
+    ArgumentCheckerUtil.checkMazeSize(columns, StorageBackend.LARGE);
+    if (walls.getCells() != (long) rows * columns)
+      throw new IllegalArgumentException(
+          "walls do not match maze size, cells: " + walls.getCells());
     this.rows = rows;
     this.columns = columns;
+    this.walls = walls;
+  }
+
+  public boolean hasRightWall(int row, int column) {
+    return walls.hasRightWall(cellIndex(row, column));
+  }
+
+  public boolean hasBottomWall(int row, int column) {
+    return walls.hasBottomWall(cellIndex(row, column));
+  }
+
+  /**
+   * То же, что и {@link #hasRightWall(int, int)}, но по индексу ячейки ({@link #cellIndex})
+   */
+  public boolean hasRightWall(long cell) {
+    return walls.hasRightWall(cell);
+  }
+
+  /**
+   * То же, что и {@link #hasBottomWall(int, int)}, но по индексу ячейки ({@link #cellIndex})
+   */
+  public boolean hasBottomWall(long cell) {
+    return walls.hasBottomWall(cell);
+  }
+
+  /**
+   * Код стен ячейки в формате {@link domain.constants.Constants}
+   */
+  public int getWalls(int row, int column) {
+    return walls.getWalls(cellIndex(row, column));
+  }
 
-    this.rightWallsMatrix = rightWallsMatrix;
-    this.bottomWallsMatrix = bottomWallsMatrix;
+  /**
+   * То же, что и {@link #getWalls(int, int)}, но по индексу ячейки ({@link #cellIndex})
+   */
+  public int getWalls(long cell) {
+    return walls.getWalls(cell);
   }
 
+  /**
+   * Стены подгружаются с диска по требованию (см. {@link WallStorage#isPaged()})
+   */
+  public boolean isPaged() {
+    return walls.isPaged();
+  }
+
+  /**
+   * Индекс ячейки в плоском представлении: <code>row * columns + column</code>
+   */
+  public long cellIndex(int row, int column) {
+    return (long) row * columns + column;
+  }
+
+  public long getCells() {
+    return (long) rows * columns;
+  }
+
+  /**
+   * Количество слов стен (см. {@link WallStorage#getWord(long)})
+   */
+  public long getWallWordCount() {
+    return walls.getWordCount();
+  }
+
+  /**
+   * Стены ячеек <code>32 * index</code> ... <code>32 * index + 31</code> одним словом: по два бита
+   * на ячейку, как в {@link PackedWalls}. Нужно для быстрого копирования и сохранения
+   */
+  public long getWallWord(long index) {
+    return walls.getWord(index);
+  }
+
+  /**
+   * Новая матрица правых стен. Изменение матрицы не влияет на лабиринт
+   */
   public int[][] getRightWallsMatrix() {
-    return rightWallsMatrix;
+    return unpackMatrix(false);
   }
 
+  /**
+   * Новая матрица нижних стен. Изменение матрицы не влияет на лабиринт
+   */
   public int[][] getBottomWallsMatrix() {
-    return bottomWallsMatrix;
+    return unpackMatrix(true);
   }
 
   public int getRows() {
@@ -46,4 +148,40 @@ public class PerfectMaze {
   public int getColumns() {
     return columns;
   }
+
+  /**
+   * Освобождение памяти стен вне кучи. После закрытия лабиринт использовать нельзя: обращения к
+   * стенам выбрасывают <code>IllegalStateException</code>. Хранилища в куче и в файлах не
+   * закрываются: их память освобождает сборщик мусора, а файлы из плиток закрывает владелец
+   */
+  @Override
+  public void close() {
+    if (walls instanceof OffHeapWalls offHeap)
+      offHeap.close();
+  }
+
+  private int[][] unpackMatrix(boolean bottom) {
+    int[][] matrix = new int[rows][columns];
+    for (int i = 0; i < rows; i++) {
+      for (int j = 0; j < columns; j++) {
+        boolean wall = bottom ? hasBottomWall(i, j) : hasRightWall(i, j);
+        matrix[i][j] = wall ? 1 : 0;
+      }
+    }
+    return matrix;
+  }
+
+  private static PackedWalls packMatrices(
+      int rows, int columns, int[][] rightWallsMatrix, int[][] bottomWallsMatrix) {
+    ArgumentCheckerUtil.checkMazeSize(rows, columns, StorageBackend.LARGE);
+    PackedWalls walls = new PackedWalls((long) rows * columns);
+    for (int i = 0; i < rows; i++) {
+      for (int j = 0; j < columns; j++) {
+        long cell = (long) i * columns + j;
+        walls.setRightWall(cell, rightWallsMatrix[i][j] != 0);
+        walls.setBottomWall(cell, bottomWallsMatrix[i][j] != 0);
+      }
+    }
+    return walls;
+  }
 }
@@ -0,0 +1,48 @@
+package domain.model;
+
+import domain.constants.Constants;
+import domain.structures.PackedWalls;
+
+/**
+ * Способ хранения лабиринта. От него зависят допустимые размеры:<br>
+ * <code>STANDARD</code> - обычные лабиринты для GUI, не больше
+ * <code>Constants.MAX_SIZE_MAZE</code> по каждой стороне<br>
+ * <code>LARGE</code> - большие лабиринты, ограниченные только емкостью {@link PackedWalls}
+ * (количество ячеек может превышать <code>Integer.MAX_VALUE</code>)<br>
+ * <code>TILED</code> - лабиринты в файле из плиток ({@link domain.structures.TiledWalls}), которые
+ * подгружаются по требованию. Размер ограничен только диском<br>
+ * <code>OFF_HEAP</code> - лабиринты вне кучи ({@link domain.structures.OffHeapWalls}): паузы
+ * сборщика мусора не зависят от размера лабиринта, а память освобождается в
+ * {@link PerfectMaze#close()}. Размер ограничен только памятью
+ */
+public enum StorageBackend {
+  STANDARD(Constants.MAX_SIZE_MAZE, (long) Constants.MAX_SIZE_MAZE * Constants.MAX_SIZE_MAZE),
+  LARGE(Integer.MAX_VALUE, PackedWalls.MAX_CELLS),
+  TILED(Integer.MAX_VALUE, Long.MAX_VALUE),
+  OFF_HEAP(Integer.MAX_VALUE, Long.MAX_VALUE);
+
+  private final int maxSide;
+  private final long maxCells;
+
+  StorageBackend(int maxSide, long maxCells) {
+    this.maxSide = maxSide;
+    this.maxCells = maxCells;
+  }
+
+  public int getMaxSide() {
+    return maxSide;
+  }
+
+  public long getMaxCells() {
+    return maxCells;
+  }
+
+  /**
+   * Проверка размеров без выбрасывания исключений
+   * @return <code>true</code>, если лабиринт <code>rows x columns</code> помещается в хранилище
+   */
+  public boolean fits(int rows, int columns) {
+    return rows > 1 && columns > 1 && rows <= maxSide && columns <= maxSide
+        && (long) rows * columns <= maxCells;
+  }
+}
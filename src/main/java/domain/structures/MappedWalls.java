@@ -0,0 +1,133 @@
+package domain.structures;
+
+import domain.constants.Constants;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32C;
+
+/**
+ * Хранилище стен поверх отображенного в память файла (<code>MappedByteBuffer</code>). Слова
+ * {@link WallStorage} лежат в файле подряд в порядке little-endian, начиная с
+ * <code>offset</code>, и читаются прямо из страниц файла без копирования и разбора<br><br>
+ *
+ * Один <code>MappedByteBuffer</code> не может быть больше 2 ГБ, поэтому файл отображается
+ * кусками по {@link #CHUNK_BYTES} байт. Если файл открыт только на чтение, то методы записи
+ * выбрасывают <code>ReadOnlyBufferException</code>
+ */
+public class MappedWalls implements WallStorage {
+  private static final int CHUNK_SHIFT = 30;
+  public static final long CHUNK_BYTES = 1L << CHUNK_SHIFT;
+
+  private final long cells;
+  private final long wordCount;
+  private final MappedByteBuffer[] chunks;
+
+  /**
+   * @param channel открытый файл. После отображения его можно закрыть
+   * @param mode режим отображения (<code>READ_ONLY</code> или <code>READ_WRITE</code>)
+   * @param offset смещение первого слова в файле
+   * @param cells количество ячеек
+   */
+  public MappedWalls(FileChannel channel, FileChannel.MapMode mode, long offset, long cells)
+      throws IOException {
+    if (cells < 0)
+      throw new ArrayIndexOutOfBoundsException("cells count is out of range, value: " + cells);
+    this.cells = cells;
+    wordCount = (cells + CELLS_PER_WORD - 1) / CELLS_PER_WORD;
+
+    long bytes = wordCount * Long.BYTES;
+    chunks = new MappedByteBuffer[(int) ((bytes + CHUNK_BYTES - 1) >>> CHUNK_SHIFT)];
+    for (int i = 0; i < chunks.length; i++) {
+      long position = (long) i << CHUNK_SHIFT;
+      long size = Math.min(CHUNK_BYTES, bytes - position);
+      chunks[i] = channel.map(mode, offset + position, size);
+      chunks[i].order(ByteOrder.LITTLE_ENDIAN);
+    }
+  }
+
+  @Override
+  public long getCells() {
+    return cells;
+  }
+
+  @Override
+  public boolean hasRightWall(long cell) {
+    return (getWord(cell / CELLS_PER_WORD) & (1L << shift(cell))) != 0;
+  }
+
+  @Override
+  public boolean hasBottomWall(long cell) {
+    return (getWord(cell / CELLS_PER_WORD) & (2L << shift(cell))) != 0;
+  }
+
+  @Override
+  public int getWalls(long cell) {
+    return (int) (getWord(cell / CELLS_PER_WORD) >>> shift(cell)) & Constants.RIGHT_BOTTOM_WALLS;
+  }
+
+  @Override
+  public void setWalls(long cell, int walls) {
+    long index = cell / CELLS_PER_WORD;
+    long mask = (long) Constants.RIGHT_BOTTOM_WALLS << shift(cell);
+    setWord(index, (getWord(index) & ~mask) | (((long) walls << shift(cell)) & mask));
+  }
+
+  @Override
+  public void setRightWall(long cell, boolean wall) {
+    setBit(cell, 1L << shift(cell), wall);
+  }
+
+  @Override
+  public void setBottomWall(long cell, boolean wall) {
+    setBit(cell, 2L << shift(cell), wall);
+  }
+
+  @Override
+  public long getWordCount() {
+    return wordCount;
+  }
+
+  @Override
+  public long getWord(long index) {
+    long position = index * Long.BYTES;
+    return chunks[(int) (position >>> CHUNK_SHIFT)].getLong((int) (position & (CHUNK_BYTES - 1)));
+  }
+
+  @Override
+  public void setWord(long index, long word) {
+    long position = index * Long.BYTES;
+    chunks[(int) (position >>> CHUNK_SHIFT)].putLong((int) (position & (CHUNK_BYTES - 1)), word);
+  }
+
+  /**
+   * Сброс измененных страниц на диск (для режима <code>READ_WRITE</code>)
+   */
+  public void force() {
+    for (MappedByteBuffer chunk : chunks) {
+      chunk.force();
+    }
+  }
+
+  /**
+   * Контрольная сумма CRC32C всех слов в том виде, в каком они лежат в файле
+   */
+  public long checksum() {
+    CRC32C crc = new CRC32C();
+    for (MappedByteBuffer chunk : chunks) {
+      crc.update(chunk.slice(0, chunk.capacity()));
+    }
+    return crc.getValue();
+  }
+
+  private void setBit(long cell, long bit, boolean value) {
+    long index = cell / CELLS_PER_WORD;
+    long word = getWord(index);
+    setWord(index, value ? word | bit : word & ~bit);
+  }
+
+  private static int shift(long cell) {
+    return (int) (cell & (CELLS_PER_WORD - 1)) << 1;
+  }
+}
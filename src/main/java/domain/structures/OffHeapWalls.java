@@ -0,0 +1,177 @@
+package domain.structures;
+
+import domain.constants.Constants;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32C;
+
+/**
+ * Хранилище стен вне кучи: слова {@link WallStorage} лежат в одном <code>MemorySegment</code>
+ * (Foreign Function &amp; Memory API) в порядке little-endian. Сборщик мусора не видит и не
+ * просматривает эту память, поэтому паузы GC не растут с размером лабиринта, а размер не
+ * ограничен ни кучей, ни длиной массива ({@link PackedWalls#MAX_CELLS})<br><br>
+ *
+ * Память либо выделяется заново (заполнена нулями), либо отображается из файла одним сегментом,
+ * без кусков по 2 ГБ, как у {@link MappedWalls}. В обоих случаях она принадлежит своей
+ * <code>Arena</code> и освобождается (или отображение снимается) сразу в {@link #close()}, а не
+ * когда до нее доберется сборщик мусора. После закрытия обращения к ячейкам выбрасывают
+ * <code>IllegalStateException</code><br><br>
+ *
+ * Арена общая (<code>Arena.ofShared()</code>), так что хранилище можно читать из нескольких
+ * потоков, а разные слова - писать из разных потоков без синхронизации, как в
+ * {@link PackedWalls}. Закрывать хранилище, пока его читают другие потоки, нельзя
+ */
+public class OffHeapWalls implements WallStorage, AutoCloseable {
+  private static final ValueLayout.OfLong WORD =
+      ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+  // CRC32C считается по кускам, скопированным в кучу: буферы общей арены CRC32C не принимает
+  private static final int CHECKSUM_CHUNK = 1 << 16;
+
+  private final long cells;
+  private final long wordCount;
+  private final Arena arena;
+  private final MemorySegment segment;
+
+  /**
+   * Новое пустое хранилище на <code>cells</code> ячеек
+   */
+  public OffHeapWalls(long cells) {
+    this.cells = checkCells(cells);
+    wordCount = (cells + CELLS_PER_WORD - 1) / CELLS_PER_WORD;
+    arena = Arena.ofShared();
+    segment = arena.allocate(Math.max(1, wordCount) * Long.BYTES, Long.BYTES);
+  }
+
+  /**
+   * Хранилище поверх отображенного в память файла. Если файл отображен только на чтение, то
+   * методы записи выбрасывают <code>UnsupportedOperationException</code>
+   * @param channel открытый файл. После отображения его можно закрыть
+   * @param mode режим отображения (<code>READ_ONLY</code> или <code>READ_WRITE</code>)
+   * @param offset смещение первого слова в файле
+   * @param cells количество ячеек
+   */
+  public OffHeapWalls(FileChannel channel, FileChannel.MapMode mode, long offset, long cells)
+      throws IOException {
+    this.cells = checkCells(cells);
+    wordCount = (cells + CELLS_PER_WORD - 1) / CELLS_PER_WORD;
+    arena = Arena.ofShared();
+    try {
+      segment = channel.map(mode, offset, wordCount * Long.BYTES, arena);
+    } catch (IOException | RuntimeException e) {
+      arena.close();
+      throw e;
+    }
+  }
+
+  @Override
+  public long getCells() {
+    return cells;
+  }
+
+  @Override
+  public boolean hasRightWall(long cell) {
+    return (getWord(cell / CELLS_PER_WORD) & (1L << shift(cell))) != 0;
+  }
+
+  @Override
+  public boolean hasBottomWall(long cell) {
+    return (getWord(cell / CELLS_PER_WORD) & (2L << shift(cell))) != 0;
+  }
+
+  @Override
+  public int getWalls(long cell) {
+    return (int) (getWord(cell / CELLS_PER_WORD) >>> shift(cell)) & Constants.RIGHT_BOTTOM_WALLS;
+  }
+
+  @Override
+  public void setWalls(long cell, int walls) {
+    long index = cell / CELLS_PER_WORD;
+    long mask = (long) Constants.RIGHT_BOTTOM_WALLS << shift(cell);
+    setWord(index, (getWord(index) & ~mask) | (((long) walls << shift(cell)) & mask));
+  }
+
+  @Override
+  public void setRightWall(long cell, boolean wall) {
+    setBit(cell, 1L << shift(cell), wall);
+  }
+
+  @Override
+  public void setBottomWall(long cell, boolean wall) {
+    setBit(cell, 2L << shift(cell), wall);
+  }
+
+  @Override
+  public long getWordCount() {
+    return wordCount;
+  }
+
+  @Override
+  public long getWord(long index) {
+    return segment.getAtIndex(WORD, index);
+  }
+
+  @Override
+  public void setWord(long index, long word) {
+    segment.setAtIndex(WORD, index, word);
+  }
+
+  /**
+   * Отображено ли хранилище из файла
+   */
+  public boolean isMapped() {
+    return segment.isMapped();
+  }
+
+  /**
+   * Сброс измененных страниц на диск, если хранилище отображено из файла в режиме
+   * <code>READ_WRITE</code>
+   */
+  public void force() {
+    if (segment.isMapped() && !segment.isReadOnly())
+      segment.force();
+  }
+
+  /**
+   * Контрольная сумма CRC32C всех слов в том виде, в каком они лежат в памяти (и в файле)
+   */
+  public long checksum() {
+    CRC32C crc = new CRC32C();
+    byte[] chunk = new byte[CHECKSUM_CHUNK];
+    long bytes = wordCount * Long.BYTES;
+    for (long position = 0; position < bytes; position += CHECKSUM_CHUNK) {
+      int length = (int) Math.min(CHECKSUM_CHUNK, bytes - position);
+      MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, position, chunk, 0, length);
+      crc.update(chunk, 0, length);
+    }
+    return crc.getValue();
+  }
+
+  /**
+   * Освобождение памяти или снятие отображения файла. Изменения в отображенном файле перед этим
+   * не сбрасываются на диск принудительно: для этого есть {@link #force()}
+   */
+  @Override
+  public void close() {
+    arena.close();
+  }
+
+  private void setBit(long cell, long bit, boolean value) {
+    long index = cell / CELLS_PER_WORD;
+    long word = getWord(index);
+    setWord(index, value ? word | bit : word & ~bit);
+  }
+
+  private static long checkCells(long cells) {
+    if (cells < 0)
+      throw new ArrayIndexOutOfBoundsException("cells count is out of range, value: " + cells);
+    return cells;
+  }
+
+  private static int shift(long cell) {
+    return (int) (cell & (CELLS_PER_WORD - 1)) << 1;
+  }
+}
@@ -0,0 +1,112 @@
+package domain.structures;
+
+import domain.constants.Constants;
+
+/**
+ * Компактное хранилище стен лабиринта: по два бита на ячейку в плоском массиве <code>long</code>
+ * <br><br>
+ *
+ * Ячейка с индексом <code>cell = row * columns + column</code> занимает биты
+ * <code>2 * cell</code> (правая стена) и <code>2 * cell + 1</code> (нижняя стена). Поэтому пара
+ * бит ячейки совпадает с кодами из {@link Constants}: <code>EMPTY</code>,
+ * <code>RIGHT_WALL</code>, <code>BOTTOM_WALL</code> и <code>RIGHT_BOTTOM_WALLS</code><br><br>
+ *
+ * Индексы ячеек имеют тип <code>long</code>, так что количество ячеек может превышать
+ * <code>Integer.MAX_VALUE</code> (до {@link #MAX_CELLS})
+ */
+public class PackedWalls implements WallStorage {
+  private static final int CELLS_PER_WORD_SHIFT = 5;
+  private static final int MAX_WORDS = Integer.MAX_VALUE - 8; // ограничение размера массива в JVM
+
+  public static final long MAX_CELLS = (long) MAX_WORDS * CELLS_PER_WORD;
+
+  private final long cells;
+  private final long[] words;
+
+  public PackedWalls(long cells) {
+    if (cells < 0 || cells > MAX_CELLS)
+      throw new ArrayIndexOutOfBoundsException("cells count is out of range, value: " + cells);
+    this.cells = cells;
+    words = new long[(int) ((cells + CELLS_PER_WORD - 1) >>> CELLS_PER_WORD_SHIFT)];
+  }
+
+  @Override
+  public long getCells() {
+    return cells;
+  }
+
+  @Override
+  public boolean hasRightWall(long cell) {
+    return (words[wordIndex(cell)] & (1L << shift(cell))) != 0;
+  }
+
+  @Override
+  public boolean hasBottomWall(long cell) {
+    return (words[wordIndex(cell)] & (2L << shift(cell))) != 0;
+  }
+
+  /**
+   * Код стен ячейки в формате {@link Constants}
+   * @param cell индекс ячейки
+   * @return <code>0</code> - <code>3</code>
+   */
+  @Override
+  public int getWalls(long cell) {
+    return (int) (words[wordIndex(cell)] >>> shift(cell)) & Constants.RIGHT_BOTTOM_WALLS;
+  }
+
+  /**
+   * Запись стен ячейки. Предыдущее значение ячейки перезаписывается
+   * @param cell индекс ячейки
+   * @param walls код стен в формате {@link Constants}
+   */
+  @Override
+  public void setWalls(long cell, int walls) {
+    int index = wordIndex(cell);
+    int shift = shift(cell);
+    long mask = (long) Constants.RIGHT_BOTTOM_WALLS << shift;
+    words[index] = (words[index] & ~mask) | (((long) walls << shift) & mask);
+  }
+
+  @Override
+  public void setRightWall(long cell, boolean wall) {
+    setBit(cell, 1L << shift(cell), wall);
+  }
+
+  @Override
+  public void setBottomWall(long cell, boolean wall) {
+    setBit(cell, 2L << shift(cell), wall);
+  }
+
+  @Override
+  public long getWordCount() {
+    return words.length;
+  }
+
+  @Override
+  public long getWord(long index) {
+    return words[(int) index];
+  }
+
+  @Override
+  public void setWord(long index, long word) {
+    words[(int) index] = word;
+  }
+
+  private void setBit(long cell, long bit, boolean value) {
+    int index = wordIndex(cell);
+    if (value) {
+      words[index] |= bit;
+    } else {
+      words[index] &= ~bit;
+    }
+  }
+
+  private static int wordIndex(long cell) {
+    return (int) (cell >>> CELLS_PER_WORD_SHIFT);
+  }
+
+  private static int shift(long cell) {
+    return (int) (cell & (CELLS_PER_WORD - 1)) << 1;
+  }
+}
@@ -1,29 +1,44 @@
 package domain.structures;
 
+import domain.model.StorageBackend;
 import domain.util.ArgumentCheckerUtil;
 
 /**
  * Структурка данных для работы со множествами. То есть для определения того, соединены ли
  * между собой ячейки в лабиринте. Алгоритм хрупкий очень, и работает только с алгоритмом Эллера в
- * паре
+ * паре<br><br>
+ *
+ * Внутри - система непересекающихся множеств (union-find) со сжатием путей и объединением по
+ * рангу, поэтому каждая операция выполняется за амортизированное почти константное время. Каждой
+ * ячейке строки соответствует узел леса. <code>disunion</code> выдает ячейке новый узел, а когда
+ * свободные узлы заканчиваются, лес уплотняется за O(size). Это происходит не чаще, чем раз в
+ * <code>size</code> вызовов <code>disunion</code>
  */
 public class SetUnion { // SetUnion - объединение множеств
   private final int size;
-  private final int[] setUnion;
-  private int biggestSetNumber;
+  private final int[] cellNodes; // узел леса для каждой ячейки строки
+  private final int[] parents; // родитель узла, у корня - он сам
+  private final byte[] ranks;
+  private final int[] remap; // временный массив для уплотнения леса
+  private int nextNode;
+  private long unionCount; // для метрик: сколько раз множества действительно объединялись
 
   public SetUnion(int size) {
-    ArgumentCheckerUtil.checkMazeSize(size);
+    ArgumentCheckerUtil.checkMazeSize(size, StorageBackend.LARGE);
     this.size = size;
-    setUnion = new int[size];
+    cellNodes = new int[size];
+    parents = new int[2 * size];
+    ranks = new byte[2 * size];
+    remap = new int[2 * size];
     for (int i = 0; i < size; i++) {
-      setUnion[i] = i;
+      cellNodes[i] = i;
+      parents[i] = i;
     }
-    biggestSetNumber = size - 1;
+    nextNode = size;
   }
 
   public int getId(int index) {
-    return setUnion[index];
+    return find(cellNodes[index]);
   }
 
   /**
@@ -36,7 +51,7 @@ public class SetUnion { // SetUnion - объединение множеств
     ArgumentCheckerUtil.checkIndexBounds(first, size);
     ArgumentCheckerUtil.checkIndexBounds(second, size);
 
-    return setUnion[first] == setUnion[second];
+    return find(cellNodes[first]) == find(cellNodes[second]);
   }
 
   /**
@@ -48,21 +63,38 @@ public class SetUnion { // SetUnion - объединение множеств
   public void union(int first, int second) {
     ArgumentCheckerUtil.checkIndexBounds(first, size);
     ArgumentCheckerUtil.checkIndexBounds(second, size);
-    int oldId = setUnion[second];
-    int newId = setUnion[first];
+    int firstRoot = find(cellNodes[first]);
+    int secondRoot = find(cellNodes[second]);
+    if (firstRoot == secondRoot)
+      return;
 
-    // Меняем ID для ВСЕХ ячеек, которые принадлежали к старому множеству
-    for (int i = 0; i < size; i++) {
-      if (setUnion[i] == oldId) {
-        setUnion[i] = newId;
-      }
+    ++unionCount;
+    // меньшее по рангу дерево подвешиваем к большему
+    if (ranks[firstRoot] < ranks[secondRoot]) {
+      parents[firstRoot] = secondRoot;
+    } else {
+      parents[secondRoot] = firstRoot;
+      if (ranks[firstRoot] == ranks[secondRoot])
+        ++ranks[firstRoot];
     }
   }
 
+  /**
+   * Количество объединений разных множеств с момента создания
+   */
+  public long getUnionCount() {
+    return unionCount;
+  }
+
   public void disunion(int value) {
     ArgumentCheckerUtil.checkIndexBounds(value, size);
-    //    biggestSetNumber += 1;
-    setUnion[value] = ++biggestSetNumber;
+    if (nextNode == parents.length)
+      compact();
+
+    int node = nextNode++;
+    parents[node] = node;
+    ranks[node] = 0;
+    cellNodes[value] = node;
   }
 
   /**
@@ -72,12 +104,13 @@ public class SetUnion { // SetUnion - объединение множеств
    */
   public boolean isAlone(int value) {
     ArgumentCheckerUtil.checkIndexBounds(value, size);
+    int id = find(cellNodes[value]);
     if (value == 0) {
-      return setUnion[value] != setUnion[value + 1];
+      return id != find(cellNodes[value + 1]);
     } else if (value == size - 1) {
-      return setUnion[value] != setUnion[value - 1];
+      return id != find(cellNodes[value - 1]);
     } else {
-      return setUnion[value] != setUnion[value - 1] && setUnion[value] != setUnion[value + 1];
+      return id != find(cellNodes[value - 1]) && id != find(cellNodes[value + 1]);
     }
   }
 
@@ -93,13 +126,41 @@ public class SetUnion { // SetUnion - объединение множеств
       return true;
     }
 
-    return setUnion[value] != setUnion[value + 1];
+    return find(cellNodes[value]) != find(cellNodes[value + 1]);
   }
 
   public void print() {
     for (int i = 0; i < size; i++) {
-      System.out.printf("%d ", setUnion[i]);
+      System.out.printf("%d ", getId(i));
     }
     System.out.println();
   }
+
+  // поиск корня со сжатием пути (каждый узел на пути подвешивается к деду)
+  private int find(int node) {
+    while (parents[node] != node) {
+      parents[node] = parents[parents[node]];
+      node = parents[node];
+    }
+    return node;
+  }
+
+  // Перенумерация множеств в 0..k-1. После нее каждое множество - это один узел-корень
+  private void compact() {
+    int next = 0;
+    for (int i = 0; i < parents.length; i++) {
+      remap[i] = -1;
+    }
+    for (int i = 0; i < size; i++) {
+      int root = find(cellNodes[i]);
+      if (remap[root] < 0)
+        remap[root] = next++;
+      cellNodes[i] = remap[root];
+    }
+    for (int i = 0; i < next; i++) {
+      parents[i] = i;
+      ranks[i] = 0;
+    }
+    nextNode = next;
+  }
 }
@@ -0,0 +1,296 @@
+package domain.structures;
+
+import domain.constants.Constants;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Хранилище стен в файле, разбитом на квадратные плитки (tiles) по
+ * <code>tileSide x tileSide</code> ячеек. Внутри плитки стены лежат словами {@link WallStorage}
+ * построчно, а сами плитки - в файле подряд, тоже построчно, начиная с <code>offset</code>.
+ * Крайние плитки имеют полный размер, поэтому смещение любой плитки вычисляется без индекса
+ * <br><br>
+ *
+ * В памяти держится не больше <code>cacheBytes</code> байт плиток: недостающие плитки
+ * подгружаются при обращении, а давно не использованные вытесняются (LRU) с записью изменений
+ * обратно в файл. Соседние ячейки почти всегда лежат в одной плитке, поэтому обход лабиринта
+ * (например, {@link domain.algorithm.PerfectMazeDFS}) читает с диска только ту область, по
+ * которой проходит, и работает на лабиринтах больше кучи<br><br>
+ *
+ * Методы синхронизированы, так что хранилище можно читать из нескольких потоков, но потоки при
+ * этом выполняются по очереди. Изменения попадают в файл при вытеснении плиток, в
+ * {@link #flush()} и в {@link #close()}. Ошибки ввода-вывода при обращении к ячейкам
+ * выбрасываются как <code>UncheckedIOException</code>
+ */
+public class TiledWalls implements WallStorage, Closeable {
+  private final FileChannel channel;
+  private final boolean writable;
+  private final long offset;
+  private final int rows;
+  private final int columns;
+  private final int tileShift;
+  private final int tileMask;
+  private final int tileWords;
+  private final long tileColumns;
+  private final long cacheBytes;
+
+  // порядок доступа: первой идет плитка, которая использовалась раньше всех
+  private final LinkedHashMap<Long, Tile> tiles = new LinkedHashMap<>(16, 0.75f, true);
+  private final ByteBuffer io;
+  private Tile lastTile;
+  private long tileLoads;
+
+  /**
+   * @param channel открытый файл. Закрывается в {@link #close()}
+   * @param writable можно ли записывать изменения в файл. Если нет, то методы записи выбрасывают
+   *     <code>UnsupportedOperationException</code>
+   * @param offset смещение первой плитки в файле
+   * @param tileSide сторона плитки в ячейках: степень двойки, не меньше 8
+   * @param cacheBytes сколько байт плиток держать в памяти. Одна плитка держится всегда
+   */
+  public TiledWalls(FileChannel channel, boolean writable, long offset, int rows, int columns,
+      int tileSide, long cacheBytes) {
+    if (rows <= 0 || columns <= 0)
+      throw new ArrayIndexOutOfBoundsException(
+          "maze size is out of range: " + rows + "x" + columns);
+    if (tileSide < 8 || tileSide > (1 << 14) || Integer.bitCount(tileSide) != 1)
+      throw new ArrayIndexOutOfBoundsException("tile side is out of range, value: " + tileSide);
+    this.channel = channel;
+    this.writable = writable;
+    this.offset = offset;
+    this.rows = rows;
+    this.columns = columns;
+    this.cacheBytes = cacheBytes;
+    tileShift = Integer.numberOfTrailingZeros(tileSide);
+    tileMask = tileSide - 1;
+    tileWords = tileSide * tileSide / CELLS_PER_WORD;
+    tileColumns = (columns + tileMask) >>> tileShift;
+    io = ByteBuffer.allocateDirect(tileWords * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  /**
+   * Размер файла с плитками, не считая <code>offset</code>
+   */
+  public static long fileSize(int rows, int columns, int tileSide) {
+    long tileRows = Math.ceilDiv(rows, tileSide);
+    long tileColumns = Math.ceilDiv(columns, tileSide);
+    return tileRows * tileColumns * tileSide * tileSide / 4;
+  }
+
+  @Override
+  public boolean isPaged() {
+    return true;
+  }
+
+  public int getRows() {
+    return rows;
+  }
+
+  public int getColumns() {
+    return columns;
+  }
+
+  public int getTileSide() {
+    return tileMask + 1;
+  }
+
+  @Override
+  public long getCells() {
+    return (long) rows * columns;
+  }
+
+  @Override
+  public synchronized boolean hasRightWall(long cell) {
+    return (getWalls(cell) & Constants.RIGHT_WALL) != 0;
+  }
+
+  @Override
+  public synchronized boolean hasBottomWall(long cell) {
+    return (getWalls(cell) & Constants.BOTTOM_WALL) != 0;
+  }
+
+  @Override
+  public synchronized int getWalls(long cell) {
+    int row = (int) (cell / columns);
+    int column = (int) (cell - (long) row * columns);
+    int local = localCell(row, column);
+    return (int) (tile(row, column).words[local >>> 5] >>> shift(local))
+        & Constants.RIGHT_BOTTOM_WALLS;
+  }
+
+  @Override
+  public synchronized void setWalls(long cell, int walls) {
+    checkWritable();
+    int row = (int) (cell / columns);
+    int column = (int) (cell - (long) row * columns);
+    int local = localCell(row, column);
+    Tile tile = tile(row, column);
+    long mask = (long) Constants.RIGHT_BOTTOM_WALLS << shift(local);
+    long[] words = tile.words;
+    words[local >>> 5] = (words[local >>> 5] & ~mask) | (((long) walls << shift(local)) & mask);
+    tile.dirty = true;
+  }
+
+  @Override
+  public synchronized void setRightWall(long cell, boolean wall) {
+    int walls = getWalls(cell);
+    setWalls(cell, wall ? walls | Constants.RIGHT_WALL : walls & ~Constants.RIGHT_WALL);
+  }
+
+  @Override
+  public synchronized void setBottomWall(long cell, boolean wall) {
+    int walls = getWalls(cell);
+    setWalls(cell, wall ? walls | Constants.BOTTOM_WALL : walls & ~Constants.BOTTOM_WALL);
+  }
+
+  /**
+   * Слово собирается из ячеек: ячейки одного слова могут лежать в разных плитках
+   */
+  @Override
+  public synchronized long getWord(long index) {
+    long first = index * CELLS_PER_WORD;
+    long end = Math.min(first + CELLS_PER_WORD, getCells());
+    long word = 0;
+    for (long cell = first; cell < end; cell++) {
+      word |= (long) getWalls(cell) << ((cell - first) << 1);
+    }
+    return word;
+  }
+
+  @Override
+  public synchronized void setWord(long index, long word) {
+    long first = index * CELLS_PER_WORD;
+    long end = Math.min(first + CELLS_PER_WORD, getCells());
+    for (long cell = first; cell < end; cell++) {
+      setWalls(cell, (int) (word >>> ((cell - first) << 1)) & Constants.RIGHT_BOTTOM_WALLS);
+    }
+  }
+
+  /**
+   * Количество плиток, прочитанных с диска с момента открытия (промахи кэша)
+   */
+  public synchronized long getTileLoads() {
+    return tileLoads;
+  }
+
+  /**
+   * Количество плиток в памяти
+   */
+  public synchronized int getCachedTiles() {
+    return tiles.size();
+  }
+
+  /**
+   * Запись всех измененных плиток в файл. Плитки остаются в памяти
+   */
+  public synchronized void flush() throws IOException {
+    for (Tile tile : tiles.values()) {
+      store(tile);
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    try (FileChannel channel = this.channel) {
+      if (writable)
+        flush();
+    } finally {
+      tiles.clear();
+      lastTile = null;
+    }
+  }
+
+  private int localCell(int row, int column) {
+    return ((row & tileMask) << tileShift) | (column & tileMask);
+  }
+
+  private static int shift(int local) {
+    return (local & (CELLS_PER_WORD - 1)) << 1;
+  }
+
+  private void checkWritable() {
+    if (!writable)
+      throw new UnsupportedOperationException("tiled walls are opened read-only");
+  }
+
+  private Tile tile(int row, int column) {
+    long index = (row >>> tileShift) * tileColumns + (column >>> tileShift);
+    Tile tile = lastTile;
+    if (tile != null && tile.index == index)
+      return tile;
+
+    tile = tiles.get(index);
+    if (tile == null) {
+      try {
+        tile = load(index);
+        evict();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      tiles.put(index, tile);
+    }
+    lastTile = tile;
+    return tile;
+  }
+
+  // Вытеснение самых старых плиток, пока новая плитка не поместится в бюджет
+  private void evict() throws IOException {
+    long tileBytes = (long) tileWords * Long.BYTES;
+    Iterator<Tile> iterator = tiles.values().iterator();
+    while ((tiles.size() + 1) * tileBytes > cacheBytes && iterator.hasNext()) {
+      Tile eldest = iterator.next();
+      store(eldest);
+      iterator.remove();
+    }
+  }
+
+  private Tile load(long index) throws IOException {
+    Tile tile = new Tile(index, new long[tileWords]);
+    long position = tilePosition(index);
+    io.clear();
+    while (io.hasRemaining()) {
+      // за концом файла - плитки, которые еще не записывались, то есть без стен
+      if (channel.read(io, position + io.position()) < 0)
+        break;
+    }
+    io.flip();
+    LongBuffer longs = io.asLongBuffer();
+    longs.get(tile.words, 0, longs.remaining());
+    tileLoads++;
+    return tile;
+  }
+
+  private void store(Tile tile) throws IOException {
+    if (!tile.dirty)
+      return;
+    long position = tilePosition(tile.index);
+    io.clear();
+    io.asLongBuffer().put(tile.words);
+    while (io.hasRemaining()) {
+      channel.write(io, position + io.position());
+    }
+    tile.dirty = false;
+  }
+
+  private long tilePosition(long index) {
+    return offset + index * tileWords * Long.BYTES;
+  }
+
+  private static class Tile {
+    final long index;
+    final long[] words;
+    boolean dirty;
+
+    Tile(long index, long[] words) {
+      this.index = index;
+      this.words = words;
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package domain.structures;
+
+/**
+ * Хранилище стен лабиринта: по два бита на ячейку, как в {@link PackedWalls}. Бит
+ * <code>2 * cell</code> - правая стена, бит <code>2 * cell + 1</code> - нижняя<br><br>
+ *
+ * Кроме доступа к отдельным ячейкам хранилище отдает стены словами по 32 ячейки в том же
+ * формате. Через слова лабиринт быстро копируется между хранилищами и записывается в файлы
+ */
+public interface WallStorage {
+  int CELLS_PER_WORD = 32;
+
+  long getCells();
+
+  boolean hasRightWall(long cell);
+
+  boolean hasBottomWall(long cell);
+
+  /**
+   * Код стен ячейки в формате {@link domain.constants.Constants}
+   */
+  int getWalls(long cell);
+
+  /**
+   * Запись стен ячейки. Предыдущее значение ячейки перезаписывается
+   */
+  void setWalls(long cell, int walls);
+
+  void setRightWall(long cell, boolean wall);
+
+  void setBottomWall(long cell, boolean wall);
+
+  /**
+   * Подгружаются ли стены с диска по требованию ({@link TiledWalls}). Для такого хранилища
+   * алгоритмы не должны выделять рабочие массивы на все ячейки: они могут быть больше самого
+   * хранилища в памяти
+   */
+  default boolean isPaged() {
+    return false;
+  }
+
+  default long getWordCount() {
+    return (getCells() + CELLS_PER_WORD - 1) / CELLS_PER_WORD;
+  }
+
+  /**
+   * Стены ячеек <code>32 * index</code> ... <code>32 * index + 31</code>
+   */
+  long getWord(long index);
+
+  void setWord(long index, long word);
+}
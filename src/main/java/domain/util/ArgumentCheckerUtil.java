@@ -1,12 +1,30 @@
 package domain.util;
 
-import domain.constants.Constants;
+import domain.model.StorageBackend;
 
 public class ArgumentCheckerUtil {
   public static void checkMazeSize(int value) {
-    if (value <= 1 || value > Constants.MAX_SIZE_MAZE) {
+    checkMazeSize(value, StorageBackend.STANDARD);
+  }
+
+  public static void checkMazeSize(int value, StorageBackend backend) {
+    if (value <= 1 || value > backend.getMaxSide()) {
       throw new ArrayIndexOutOfBoundsException(
-          "size cannot be one or less and more " + Constants.MAX_SIZE_MAZE + ", size: " + value);
+          "size cannot be one or less and more " + backend.getMaxSide() + ", size: " + value);
+    }
+  }
+
+  /**
+   * Полная проверка размеров лабиринта для выбранного хранилища: каждой стороны и общего
+   * количества ячеек
+   */
+  public static void checkMazeSize(int rows, int columns, StorageBackend backend) {
+    checkMazeSize(rows, backend);
+    checkMazeSize(columns, backend);
+    long cells = (long) rows * columns;
+    if (cells > backend.getMaxCells()) {
+      throw new ArrayIndexOutOfBoundsException("cells count cannot be more "
+          + backend.getMaxCells() + " for " + backend + " storage, cells: " + cells);
     }
   }
 
@@ -0,0 +1,148 @@
+package domain.util;
+
+import domain.model.PerfectMaze;
+import domain.model.StorageBackend;
+import domain.structures.MappedWalls;
+import domain.structures.OffHeapWalls;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Двоичный формат файла лабиринта. Все числа - little-endian<br><br>
+ *
+ * <code>0</code>: сигнатура <code>PMZB</code><br>
+ * <code>4</code>: версия формата (<code>int</code>)<br>
+ * <code>8</code>: количество строк (<code>int</code>)<br>
+ * <code>12</code>: количество столбцов (<code>int</code>)<br>
+ * <code>16</code>: контрольная сумма CRC32C стен (<code>long</code>)<br>
+ * <code>24</code>: зарезервировано (<code>long</code>, 0)<br>
+ * <code>32</code>: стены словами по 32 ячейки (<code>long</code>), по два бита на ячейку, как в
+ * {@link domain.structures.PackedWalls}<br><br>
+ *
+ * Файл читается и пишется через отображение в память, а загруженный лабиринт работает прямо
+ * поверх страниц файла ({@link MappedWalls}), без копирования и разбора. Отображение
+ * <code>MappedByteBuffer</code> снимается только сборщиком мусора, поэтому для больших файлов
+ * есть {@link #loadOffHeap(Path, boolean)}: файл отображается в <code>MemorySegment</code>
+ * ({@link OffHeapWalls}), и отображение снимается сразу при закрытии лабиринта
+ */
+public class BinaryMazeFormat {
+  public static final int MAGIC = 0x425A4D50; // "PMZB" в little-endian
+  public static final int VERSION = 1;
+  public static final int HEADER_SIZE = 32;
+
+  /**
+   * Сохранение через временный файл в том же каталоге, который затем атомарно заменяет
+   * <code>path</code>. Лабиринт, загруженный из этого же файла, читает стены прямо из его
+   * отображения, поэтому писать в <code>path</code> на месте нельзя: усечение файла уничтожило
+   * бы стены до того, как они скопированы
+   */
+  public static void save(PerfectMaze maze, Path path) throws IOException {
+    Path directory = path.toAbsolutePath().getParent();
+    Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+    try {
+      write(maze, temp);
+      Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(temp);
+      throw e;
+    }
+  }
+
+  private static void write(PerfectMaze maze, Path path) throws IOException {
+    long cells = maze.getCells();
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+             StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+             StandardOpenOption.WRITE)) {
+      MappedWalls walls =
+          new MappedWalls(channel, FileChannel.MapMode.READ_WRITE, HEADER_SIZE, cells);
+      long words = maze.getWallWordCount();
+      for (long i = 0; i < words; i++) {
+        walls.setWord(i, maze.getWallWord(i));
+      }
+      walls.force();
+
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      header.putInt(MAGIC).putInt(VERSION).putInt(maze.getRows()).putInt(maze.getColumns());
+      header.putLong(walls.checksum()).putLong(0).flip();
+      while (header.hasRemaining()) {
+        channel.write(header, header.position());
+      }
+    }
+  }
+
+  /**
+   * Загрузка с проверкой контрольной суммы
+   */
+  public static PerfectMaze load(Path path) throws IOException {
+    return load(path, true);
+  }
+
+  /**
+   * @param verifyChecksum проверять ли контрольную сумму. Проверка один раз читает весь файл;
+   *     без нее загрузка стоит O(1), а страницы подгружаются по мере обращения к ячейкам
+   */
+  public static PerfectMaze load(Path path, boolean verifyChecksum) throws IOException {
+    return load(path, verifyChecksum, false);
+  }
+
+  /**
+   * То же, что и {@link #load(Path, boolean)}, но стены отображаются вне кучи
+   * ({@link OffHeapWalls}). Лабиринт нужно закрыть ({@link PerfectMaze#close()}): тогда
+   * отображение файла снимается сразу, не дожидаясь сборщика мусора
+   */
+  public static PerfectMaze loadOffHeap(Path path, boolean verifyChecksum) throws IOException {
+    return load(path, verifyChecksum, true);
+  }
+
+  private static PerfectMaze load(Path path, boolean verifyChecksum, boolean offHeap)
+      throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      while (header.hasRemaining()) {
+        if (channel.read(header, header.position()) < 0)
+          throw new IOException("File is truncated");
+      }
+      header.flip();
+
+      if (header.getInt() != MAGIC)
+        throw new IOException("Wrong file format");
+      int version = header.getInt();
+      if (version != VERSION)
+        throw new IOException("Unsupported format version: " + version);
+      int rows = header.getInt();
+      int columns = header.getInt();
+      long checksum = header.getLong();
+      ArgumentCheckerUtil.checkMazeSize(rows, StorageBackend.LARGE);
+      ArgumentCheckerUtil.checkMazeSize(columns, StorageBackend.LARGE);
+
+      long cells = (long) rows * columns;
+      long words = (cells + MappedWalls.CELLS_PER_WORD - 1) / MappedWalls.CELLS_PER_WORD;
+      if (channel.size() < HEADER_SIZE + words * Long.BYTES)
+        throw new IOException("File is truncated");
+
+      if (offHeap) {
+        OffHeapWalls walls =
+            new OffHeapWalls(channel, FileChannel.MapMode.READ_ONLY, HEADER_SIZE, cells);
+        if (verifyChecksum && walls.checksum() != checksum) {
+          walls.close();
+          throw new IOException("Checksum mismatch");
+        }
+        return new PerfectMaze(rows, columns, walls);
+      }
+
+      MappedWalls walls =
+          new MappedWalls(channel, FileChannel.MapMode.READ_ONLY, HEADER_SIZE, cells);
+      if (verifyChecksum && walls.checksum() != checksum)
+        throw new IOException("Checksum mismatch");
+
+      return new PerfectMaze(rows, columns, walls);
+    }
+  }
+}
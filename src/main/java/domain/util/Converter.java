@@ -1,70 +1,179 @@
 package domain.util;
 
+import domain.metrics.MazeMetrics;
+import domain.metrics.Metrics;
 import domain.model.PerfectMaze;
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
+/**
+ * Сохранение и загрузка лабиринтов. Текстовый формат описан в README, двоичный - в
+ * {@link BinaryMazeFormat}, сжатый архивный - в {@link MazeArchive}
+ */
 public class Converter {
+  public static final String TEXT_EXTENSION = ".txt";
+  public static final String BINARY_EXTENSION = ".mzb";
+  public static final String ARCHIVE_EXTENSION = ".mza";
+
   public static void saveMazeToFile(PerfectMaze maze, String filename) {
+    long start = startTime();
     try (BufferedWriter bw = new BufferedWriter(new FileWriter(filename))) {
-      int[][] rightWalls = maze.getRightWallsMatrix();
-      int[][] bottomWalls = maze.getBottomWallsMatrix();
-      int rows = maze.getRows(), columns = maze.getColumns();
-
-      bw.write(rows + " " + columns);
-      bw.newLine();
-      matrixToFile(bw, rightWalls, rows, columns);
-      bw.newLine();
-      matrixToFile(bw, bottomWalls, rows, columns);
+      writeText(bw, maze);
     } catch (Exception e) {
       throw new IllegalArgumentException("Something went wrong: " + e.getMessage());
     }
+    recordWrite("text", Path.of(filename), start);
+  }
+
+  /**
+   * Запись лабиринта в текстовом формате в поток. Поток не закрывается
+   */
+  public static void saveMazeToStream(PerfectMaze maze, OutputStream out) throws IOException {
+    BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(out));
+    writeText(bw, maze);
+    bw.flush();
+  }
+
+  private static void writeText(BufferedWriter bw, PerfectMaze maze) throws IOException {
+    bw.write(maze.getRows() + " " + maze.getColumns());
+    bw.newLine();
+    matrixToFile(bw, maze, false);
+    bw.newLine();
+    matrixToFile(bw, maze, true);
   }
 
-  private static void matrixToFile(BufferedWriter bw, int[][] matrix, int rows, int columns)
+  private static void matrixToFile(BufferedWriter bw, PerfectMaze maze, boolean bottom)
       throws IOException {
+    int rows = maze.getRows(), columns = maze.getColumns();
     for (int i = 0; i < rows; i++) {
       for (int j = 0; j < columns; j++) {
-        bw.write(String.valueOf(matrix[i][j]));
+        boolean wall = bottom ? maze.hasBottomWall(i, j) : maze.hasRightWall(i, j);
+        bw.write(wall ? '1' : '0');
         if (j < columns - 1)
-          bw.write(" ");
+          bw.write(' ');
       }
       bw.newLine();
     }
   }
 
   public static PerfectMaze loadMazeFromFile(File file) throws IOException {
-    BufferedReader br = new BufferedReader(new FileReader(file));
-    String sizeLine = br.readLine().trim();
-    String[] mazeSizes = sizeLine.split("\\s+");
-    if (mazeSizes.length != 2)
-      throw new IOException("Wrong size format");
+    try (InputStream in = new FileInputStream(file)) {
+      return loadMazeFromStream(in);
+    }
+  }
 
-    int rows = Integer.parseInt(mazeSizes[0]);
-    int cols = Integer.parseInt(mazeSizes[1]);
+  /**
+   * Загрузка лабиринта в текстовом формате из потока (см. {@link TextMazeReader}). Поток не
+   * закрывается
+   */
+  public static PerfectMaze loadMazeFromStream(InputStream in) throws IOException {
+    return loadMazeFromStream(in, Long.MAX_VALUE);
+  }
 
-    int[][] rightWalls = readMatrix(br, rows, cols);
-    br.readLine();
-    int[][] bottomWalls = readMatrix(br, rows, cols);
+  /**
+   * То же, что и {@link #loadMazeFromStream(InputStream)}, но лабиринт больше
+   * <code>maxCells</code> ячеек отвергается по заголовку, до выделения памяти
+   */
+  public static PerfectMaze loadMazeFromStream(InputStream in, long maxCells)
+      throws IOException {
+    long start = startTime();
+    TextMazeReader reader = new TextMazeReader(in, maxCells);
+    PerfectMaze maze = reader.read();
 
-    return new PerfectMaze(rows, cols, rightWalls, bottomWalls);
+    MazeMetrics metrics = Metrics.get();
+    if (metrics.isEnabled() && start != 0)
+      metrics.mazeRead("text", reader.getBytesRead(), System.nanoTime() - start);
+    return maze;
   }
 
-  private static int[][] readMatrix(BufferedReader br, int rows, int cols) throws IOException {
-    int[][] matrix = new int[rows][cols];
+  /**
+   * Сохранение в двоичном формате ({@link BinaryMazeFormat})
+   */
+  public static void saveMazeToBinaryFile(PerfectMaze maze, Path path) throws IOException {
+    long start = startTime();
+    BinaryMazeFormat.save(maze, path);
+    recordWrite("binary", path, start);
+  }
 
-    for (int i = 0; i < rows; i++) {
-      String line = br.readLine();
-      if (line == null)
-        throw new IOException("Not enough rows in the matrix");
+  /**
+   * Загрузка из двоичного формата ({@link BinaryMazeFormat}). Стены не копируются в память, а
+   * читаются прямо из отображенного файла
+   */
+  public static PerfectMaze loadMazeFromBinaryFile(Path path) throws IOException {
+    long start = startTime();
+    PerfectMaze maze = BinaryMazeFormat.load(path);
+    recordRead("binary", path, start);
+    return maze;
+  }
 
-      String[] numbers = line.trim().split("\\s+");
-      if (numbers.length != cols)
-        throw new IOException("Incorrect number of columns in a row");
+  /**
+   * Сохранение в сжатом архивном формате ({@link MazeArchive})
+   */
+  public static void saveMazeToArchive(PerfectMaze maze, Path path) throws IOException {
+    long start = startTime();
+    MazeArchive.save(maze, path);
+    recordWrite("archive", path, start);
+  }
 
-      for (int j = 0; j < cols; j++) {
-        matrix[i][j] = Integer.parseInt(numbers[j]);
-      }
+  /**
+   * Загрузка всего лабиринта из архива. Для чтения части строк - {@link MazeArchiveReader}
+   */
+  public static PerfectMaze loadMazeFromArchive(Path path) throws IOException {
+    long start = startTime();
+    PerfectMaze maze = MazeArchive.load(path);
+    recordRead("archive", path, start);
+    return maze;
+  }
+
+  /**
+   * Загрузка в формате, который определяется по расширению файла
+   */
+  public static PerfectMaze loadMaze(File file) throws IOException {
+    String name = file.getName().toLowerCase();
+    if (name.endsWith(BINARY_EXTENSION))
+      return loadMazeFromBinaryFile(file.toPath());
+    if (name.endsWith(ARCHIVE_EXTENSION))
+      return loadMazeFromArchive(file.toPath());
+    return loadMazeFromFile(file);
+  }
+
+  /**
+   * Сохранение в формате, который определяется по расширению файла
+   */
+  public static void saveMaze(PerfectMaze maze, String filename) throws IOException {
+    String name = filename.toLowerCase();
+    if (name.endsWith(BINARY_EXTENSION)) {
+      saveMazeToBinaryFile(maze, Path.of(filename));
+    } else if (name.endsWith(ARCHIVE_EXTENSION)) {
+      saveMazeToArchive(maze, Path.of(filename));
+    } else {
+      saveMazeToFile(maze, filename);
+    }
+  }
+
+  // Время начала операции для метрик. Если метрики выключены, то время не замеряется
+  private static long startTime() {
+    return Metrics.get().isEnabled() ? System.nanoTime() : 0;
+  }
+
+  private static void recordRead(String format, Path path, long start) {
+    MazeMetrics metrics = Metrics.get();
+    if (metrics.isEnabled() && start != 0)
+      metrics.mazeRead(format, fileSize(path), System.nanoTime() - start);
+  }
+
+  private static void recordWrite(String format, Path path, long start) {
+    MazeMetrics metrics = Metrics.get();
+    if (metrics.isEnabled() && start != 0)
+      metrics.mazeWritten(format, fileSize(path), System.nanoTime() - start);
+  }
+
+  private static long fileSize(Path path) {
+    try {
+      return Files.size(path);
+    } catch (IOException e) {
+      return 0;
     }
-    return matrix;
   }
 }
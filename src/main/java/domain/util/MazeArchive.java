@@ -0,0 +1,75 @@
+package domain.util;
+
+import domain.model.PerfectMaze;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Сжатый архивный формат лабиринта с произвольным доступом к строкам. Все числа - little-endian
+ * <br><br>
+ *
+ * Строки лабиринта группируются в блоки по <code>blockRows</code> строк, и каждый блок сжимается
+ * <code>Deflater</code> независимо от остальных. Строка в блоке занимает
+ * <code>ceil(columns / 4)</code> байт: по два бита на ячейку в формате
+ * {@link domain.constants.Constants}, ячейка <code>j</code> - в битах
+ * <code>2 * (j % 4)</code> байта <code>j / 4</code><br><br>
+ *
+ * Заголовок:<br>
+ * <code>0</code>: сигнатура <code>PMZA</code><br>
+ * <code>4</code>: версия формата (<code>int</code>)<br>
+ * <code>8</code>: количество строк (<code>int</code>)<br>
+ * <code>12</code>: количество столбцов (<code>int</code>)<br>
+ * <code>16</code>: строк в блоке (<code>int</code>)<br>
+ * <code>20</code>: зарезервировано (<code>int</code> и <code>long</code>, 0)<br>
+ * <code>32</code>: сжатые блоки подряд<br><br>
+ *
+ * После блоков идет индекс: для каждого блока смещение (<code>long</code>), длина в сжатом виде
+ * (<code>int</code>) и контрольная сумма CRC32C несжатых данных (<code>int</code>). Последние
+ * 16 байт файла - смещение индекса (<code>long</code>), количество блоков (<code>int</code>) и
+ * снова сигнатура (<code>int</code>). Индекс пишется в конце, поэтому архив можно писать потоком
+ * прямо из генератора ({@link MazeArchiveWriter}), а читать - любым диапазоном строк, распаковывая
+ * только нужные блоки ({@link MazeArchiveReader})
+ */
+public class MazeArchive {
+  public static final int MAGIC = 0x415A4D50; // "PMZA" в little-endian
+  public static final int VERSION = 1;
+  public static final int HEADER_SIZE = 32;
+  public static final int INDEX_ENTRY_SIZE = 16;
+  public static final int FOOTER_SIZE = 16;
+  // примерный размер несжатого блока по умолчанию
+  public static final int DEFAULT_BLOCK_BYTES = 1 << 16;
+
+  public static void save(PerfectMaze maze, Path path) throws IOException {
+    int rows = maze.getRows(), columns = maze.getColumns();
+    try (MazeArchiveWriter writer = new MazeArchiveWriter(path, rows, columns)) {
+      int[] mazeRow = new int[columns];
+      for (int i = 0; i < rows; i++) {
+        for (int j = 0; j < columns; j++) {
+          mazeRow[j] = maze.getWalls(i, j);
+        }
+        writer.acceptRow(i, mazeRow);
+      }
+    }
+  }
+
+  public static PerfectMaze load(Path path) throws IOException {
+    try (MazeArchiveReader reader = new MazeArchiveReader(path)) {
+      return reader.readMaze();
+    }
+  }
+
+  /**
+   * Размер строки в блоке, байт
+   */
+  public static int rowBytes(int columns) {
+    return (columns + 3) >>> 2;
+  }
+
+  /**
+   * Количество строк в блоке, при котором несжатый блок занимает около
+   * {@link #DEFAULT_BLOCK_BYTES}
+   */
+  public static int defaultBlockRows(int columns) {
+    return Math.max(1, DEFAULT_BLOCK_BYTES / rowBytes(columns));
+  }
+}
@@ -0,0 +1,212 @@
+package domain.util;
+
+import domain.algorithm.RowSink;
+import domain.model.PerfectMaze;
+import domain.model.StorageBackend;
+import domain.structures.PackedWalls;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Чтение архива {@link MazeArchive} по частям. При открытии читаются только заголовок и индекс
+ * блоков, а строки распаковываются по запросу: для диапазона строк - только блоки, которые его
+ * покрывают. Последний распакованный блок запоминается, поэтому последовательное чтение соседних
+ * диапазонов не распаковывает блок повторно<br><br>
+ *
+ * Не потокобезопасный: для параллельного чтения каждому потоку нужен свой экземпляр
+ */
+public class MazeArchiveReader implements AutoCloseable {
+  private final FileChannel channel;
+  private final int rows;
+  private final int columns;
+  private final int blockRows;
+  private final int rowBytes;
+
+  private final long[] blockOffsets;
+  private final int[] blockLengths;
+  private final int[] blockChecksums;
+
+  private final Inflater inflater = new Inflater();
+  private final CRC32C crc = new CRC32C();
+  private final byte[] block;
+  private ByteBuffer compressed = ByteBuffer.allocate(0);
+  private int cachedBlock = -1;
+
+  public MazeArchiveReader(Path path) throws IOException {
+    channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      ByteBuffer header = read(0, MazeArchive.HEADER_SIZE);
+      if (header.getInt() != MazeArchive.MAGIC)
+        throw new IOException("Wrong file format");
+      int version = header.getInt();
+      if (version != MazeArchive.VERSION)
+        throw new IOException("Unsupported format version: " + version);
+      rows = header.getInt();
+      columns = header.getInt();
+      blockRows = header.getInt();
+      ArgumentCheckerUtil.checkMazeSize(rows, StorageBackend.LARGE);
+      ArgumentCheckerUtil.checkMazeSize(columns, StorageBackend.LARGE);
+      rowBytes = MazeArchive.rowBytes(columns);
+      if (blockRows <= 0 || blockRows > rows
+          || (long) blockRows * rowBytes > Integer.MAX_VALUE - 8)
+        throw new IOException("Wrong file format");
+
+      int blockCount = Math.ceilDiv(rows, blockRows);
+      long size = channel.size();
+      if (size < MazeArchive.HEADER_SIZE + MazeArchive.FOOTER_SIZE)
+        throw new IOException("File is truncated");
+      ByteBuffer footer = read(size - MazeArchive.FOOTER_SIZE, MazeArchive.FOOTER_SIZE);
+      long indexOffset = footer.getLong();
+      long indexBytes = (long) blockCount * MazeArchive.INDEX_ENTRY_SIZE;
+      if (footer.getInt() != blockCount || footer.getInt() != MazeArchive.MAGIC
+          || indexOffset + indexBytes != size - MazeArchive.FOOTER_SIZE)
+        throw new IOException("File is truncated");
+      // индекс читается одним буфером, так что он должен помещаться в массив
+      if (indexOffset < MazeArchive.HEADER_SIZE || indexBytes > Integer.MAX_VALUE - 8)
+        throw new IOException("Wrong file format");
+
+      ByteBuffer index = read(indexOffset, (int) indexBytes);
+      blockOffsets = new long[blockCount];
+      blockLengths = new int[blockCount];
+      blockChecksums = new int[blockCount];
+      for (int i = 0; i < blockCount; i++) {
+        blockOffsets[i] = index.getLong();
+        blockLengths[i] = index.getInt();
+        blockChecksums[i] = index.getInt();
+        if (blockOffsets[i] < MazeArchive.HEADER_SIZE || blockLengths[i] < 0
+            || blockOffsets[i] + blockLengths[i] > indexOffset)
+          throw new IOException("Wrong file format");
+      }
+      // лишний байт нужен, чтобы заметить блок длиннее ожидаемого
+      block = new byte[blockRows * rowBytes + 1];
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  public int getRows() {
+    return rows;
+  }
+
+  public int getColumns() {
+    return columns;
+  }
+
+  public int getBlockRows() {
+    return blockRows;
+  }
+
+  public int getBlockCount() {
+    return blockOffsets.length;
+  }
+
+  /**
+   * Передача строк <code>[firstRow, firstRow + rowCount)</code> в <code>sink</code> в формате
+   * <code>mazeRow</code>. Номера строк - как в исходном лабиринте
+   */
+  public void readRows(int firstRow, int rowCount, RowSink sink) throws IOException {
+    checkRange(firstRow, rowCount);
+    int[] mazeRow = new int[columns];
+    for (int row = firstRow, end = firstRow + rowCount; row < end; row++) {
+      loadBlock(row / blockRows);
+      int offset = (row % blockRows) * rowBytes;
+      for (int j = 0; j < columns; j++) {
+        mazeRow[j] = (block[offset + (j >>> 2)] >>> ((j & 3) << 1)) & 3;
+      }
+      sink.acceptRow(row, mazeRow);
+    }
+  }
+
+  /**
+   * Часть лабиринта из строк <code>[firstRow, firstRow + rowCount)</code>, например для
+   * отрисовки или поиска пути в одной области. Строки нумеруются заново с нуля, а нижние стены
+   * последней строки остаются такими, как в архиве
+   */
+  public PerfectMaze readRegion(int firstRow, int rowCount) throws IOException {
+    checkRange(firstRow, rowCount);
+    ArgumentCheckerUtil.checkMazeSize(rowCount, columns, StorageBackend.LARGE);
+    PackedWalls walls = new PackedWalls((long) rowCount * columns);
+    readRows(firstRow, rowCount, (row, mazeRow) -> {
+      long offset = (long) (row - firstRow) * columns;
+      for (int j = 0; j < columns; j++) {
+        walls.setWalls(offset + j, mazeRow[j]);
+      }
+    });
+    return new PerfectMaze(rowCount, columns, walls);
+  }
+
+  /**
+   * Лабиринт целиком
+   */
+  public PerfectMaze readMaze() throws IOException {
+    return readRegion(0, rows);
+  }
+
+  @Override
+  public void close() throws IOException {
+    inflater.end();
+    channel.close();
+  }
+
+  private void checkRange(int firstRow, int rowCount) {
+    ArgumentCheckerUtil.checkIndexBounds(firstRow, rows);
+    if (rowCount <= 0 || rowCount > rows - firstRow)
+      throw new ArrayIndexOutOfBoundsException("row count is out of range, value: " + rowCount);
+  }
+
+  private void loadBlock(int index) throws IOException {
+    if (index == cachedBlock)
+      return;
+    cachedBlock = -1;
+
+    int length = blockLengths[index];
+    if (compressed.capacity() < length)
+      compressed = ByteBuffer.allocate(length);
+    compressed.clear().limit(length);
+    readFully(compressed, blockOffsets[index]);
+
+    int expected = Math.min(blockRows, rows - index * blockRows) * rowBytes;
+    inflater.reset();
+    inflater.setInput(compressed.array(), 0, length);
+    try {
+      int inflated = 0;
+      while (inflated <= expected && !inflater.finished()) {
+        int n = inflater.inflate(block, inflated, expected + 1 - inflated);
+        if (n == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+          break;
+        inflated += n;
+      }
+      if (inflated != expected || !inflater.finished())
+        throw new IOException("Corrupted block " + index);
+    } catch (DataFormatException e) {
+      throw new IOException("Corrupted block " + index, e);
+    }
+
+    crc.reset();
+    crc.update(block, 0, expected);
+    if ((int) crc.getValue() != blockChecksums[index])
+      throw new IOException("Checksum mismatch");
+    cachedBlock = index;
+  }
+
+  private ByteBuffer read(long position, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+    readFully(buffer, position);
+    return buffer.flip();
+  }
+
+  private void readFully(ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0)
+        throw new IOException("File is truncated");
+    }
+  }
+}
@@ -0,0 +1,162 @@
+package domain.util;
+
+import domain.algorithm.RowSink;
+import domain.model.StorageBackend;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+import java.util.zip.Deflater;
+
+/**
+ * Потоковая запись архива {@link MazeArchive}. Строки принимаются по одной, как от
+ * {@link domain.algorithm.PerfectMazeGenerator#generate(RowSink)}, и каждый заполненный блок
+ * сразу сжимается и пишется в файл, так что памяти требуется O(размер блока) при любом
+ * количестве строк<br><br>
+ *
+ * Строки должны приходить по порядку, начиная с нулевой. Индекс блоков пишется в
+ * {@link #close()}: без него архив не читается
+ */
+public class MazeArchiveWriter implements RowSink, AutoCloseable {
+  private final OutputStream out;
+  private final int rows;
+  private final int columns;
+  private final int blockRows;
+  private final int rowBytes;
+
+  private final byte[] block;
+  private byte[] compressed;
+  private final Deflater deflater = new Deflater();
+  private final CRC32C crc = new CRC32C();
+
+  private final long[] blockOffsets;
+  private final int[] blockLengths;
+  private final int[] blockChecksums;
+  private int blocks;
+  private int nextRow;
+  private long position;
+  private boolean closed;
+
+  public MazeArchiveWriter(Path path, int rows, int columns) throws IOException {
+    this(path, rows, columns, MazeArchive.defaultBlockRows(columns));
+  }
+
+  /**
+   * @param blockRows строк в блоке. Меньшие блоки дешевле читать по частям, большие - лучше
+   *     сжимаются
+   */
+  public MazeArchiveWriter(Path path, int rows, int columns, int blockRows) throws IOException {
+    ArgumentCheckerUtil.checkMazeSize(rows, StorageBackend.LARGE);
+    ArgumentCheckerUtil.checkMazeSize(columns, StorageBackend.LARGE);
+    rowBytes = MazeArchive.rowBytes(columns);
+    if (blockRows <= 0 || (long) blockRows * rowBytes > Integer.MAX_VALUE - 8)
+      throw new ArrayIndexOutOfBoundsException("block rows is out of range, value: " + blockRows);
+
+    this.rows = rows;
+    this.columns = columns;
+    this.blockRows = Math.min(blockRows, rows);
+    block = new byte[this.blockRows * rowBytes];
+    compressed = new byte[Math.max(64, block.length / 4)];
+
+    int blockCount = Math.ceilDiv(rows, this.blockRows);
+    // индекс с подвалом пишется одним буфером при закрытии
+    if ((long) blockCount * MazeArchive.INDEX_ENTRY_SIZE + MazeArchive.FOOTER_SIZE
+        > Integer.MAX_VALUE - 8)
+      throw new ArrayIndexOutOfBoundsException("block count is out of range, value: " + blockCount);
+    blockOffsets = new long[blockCount];
+    blockLengths = new int[blockCount];
+    blockChecksums = new int[blockCount];
+
+    out = new BufferedOutputStream(Files.newOutputStream(path), 1 << 16);
+    ByteBuffer header =
+        ByteBuffer.allocate(MazeArchive.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    header.putInt(MazeArchive.MAGIC).putInt(MazeArchive.VERSION).putInt(rows).putInt(columns);
+    header.putInt(this.blockRows).putInt(0).putLong(0);
+    write(header.array(), MazeArchive.HEADER_SIZE);
+  }
+
+  /**
+   * @throws UncheckedIOException если запись в файл не удалась
+   * @throws IllegalStateException если строка пришла не по порядку
+   */
+  @Override
+  public void acceptRow(int row, int[] mazeRow) {
+    if (closed || row != nextRow || row >= rows)
+      throw new IllegalStateException("Expected row " + nextRow + ", got " + row);
+
+    int offset = (row % blockRows) * rowBytes;
+    for (int j = 0; j < columns; j += 4) {
+      int packed = 0;
+      for (int k = 0, end = Math.min(4, columns - j); k < end; k++) {
+        packed |= mazeRow[j + k] << (k << 1);
+      }
+      block[offset + (j >>> 2)] = (byte) packed;
+    }
+
+    if (++nextRow % blockRows == 0 || nextRow == rows) {
+      try {
+        flushBlock(offset + rowBytes);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  /**
+   * Запись индекса и закрытие файла
+   * @throws IOException если были записаны не все строки. Файл при этом все равно закрывается
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed)
+      return;
+    closed = true;
+    try (OutputStream out = this.out) {
+      ByteBuffer index = ByteBuffer.allocate(
+          (int) ((long) blocks * MazeArchive.INDEX_ENTRY_SIZE + MazeArchive.FOOTER_SIZE))
+          .order(ByteOrder.LITTLE_ENDIAN);
+      for (int i = 0; i < blocks; i++) {
+        index.putLong(blockOffsets[i]).putInt(blockLengths[i]).putInt(blockChecksums[i]);
+      }
+      index.putLong(position).putInt(blocks).putInt(MazeArchive.MAGIC);
+      write(index.array(), index.capacity());
+    } finally {
+      deflater.end();
+    }
+    if (nextRow != rows)
+      throw new IOException("Not enough rows in the matrix");
+  }
+
+  private void flushBlock(int length) throws IOException {
+    crc.reset();
+    crc.update(block, 0, length);
+
+    deflater.reset();
+    deflater.setInput(block, 0, length);
+    deflater.finish();
+    int compressedLength = 0;
+    while (!deflater.finished()) {
+      if (compressedLength == compressed.length)
+        compressed = Arrays.copyOf(compressed, compressed.length * 2);
+      compressedLength +=
+          deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+    }
+
+    blockOffsets[blocks] = position;
+    blockLengths[blocks] = compressedLength;
+    blockChecksums[blocks] = (int) crc.getValue();
+    blocks++;
+    write(compressed, compressedLength);
+  }
+
+  private void write(byte[] bytes, int length) throws IOException {
+    out.write(bytes, 0, length);
+    position += length;
+  }
+}
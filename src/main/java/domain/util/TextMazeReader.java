@@ -0,0 +1,246 @@
+package domain.util;
+
+import domain.model.PerfectMaze;
+import domain.model.StorageBackend;
+import domain.structures.PackedWalls;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Потоковое чтение лабиринта в текстовом формате (см. README)<br><br>
+ *
+ * Байты читаются в один переиспользуемый буфер, а токены <code>0</code>/<code>1</code>
+ * разбираются вручную и сразу записываются в {@link PackedWalls}, без промежуточных строк.
+ * Только нестандартные токены (например, <code>01</code> или ошибочные) разбираются через
+ * <code>Integer.parseInt</code>, поэтому ошибки и их сообщения такие же, как у построчного
+ * чтения через <code>BufferedReader</code>: <code>Wrong size format</code>,
+ * <code>Not enough rows in the matrix</code>, <code>Incorrect number of columns in a row</code>
+ * и <code>NumberFormatException</code> для нечисловых значений
+ */
+public class TextMazeReader {
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final InputStream in;
+  private final long maxCells;
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+  private int position;
+  private int limit;
+  private long bytesRead;
+  // строка закончилась на '\r', и следующий '\n' относится к ней же
+  private boolean skipLineFeed;
+
+  private byte[] token = new byte[16];
+  private int tokenLength;
+
+  /**
+   * @param in поток с лабиринтом. Закрывать его должен вызывающий код
+   */
+  public TextMazeReader(InputStream in) {
+    this(in, Long.MAX_VALUE);
+  }
+
+  /**
+   * @param in поток с лабиринтом. Закрывать его должен вызывающий код
+   * @param maxCells наибольшее количество ячеек. Размер из заголовка проверяется до выделения
+   *     хранилища, поэтому заголовок огромного лабиринта не заставляет выделять под него память
+   */
+  public TextMazeReader(InputStream in, long maxCells) {
+    this.in = in;
+    this.maxCells = maxCells;
+  }
+
+  /**
+   * Сколько байт прочитано из потока
+   */
+  public long getBytesRead() {
+    return bytesRead;
+  }
+
+  public PerfectMaze read() throws IOException {
+    String sizeLine = readLine();
+    if (sizeLine == null)
+      throw new IOException("Wrong size format");
+    String[] mazeSizes = sizeLine.trim().split("\\s+");
+    if (mazeSizes.length != 2)
+      throw new IOException("Wrong size format");
+
+    int rows = Integer.parseInt(mazeSizes[0]);
+    int cols = Integer.parseInt(mazeSizes[1]);
+    ArgumentCheckerUtil.checkMazeSize(rows, cols, StorageBackend.LARGE);
+    if ((long) rows * cols > maxCells)
+      throw new ArrayIndexOutOfBoundsException(
+          "cells count cannot be more " + maxCells + ", cells: " + (long) rows * cols);
+
+    PackedWalls walls = new PackedWalls((long) rows * cols);
+    readMatrix(walls, rows, cols, false);
+    readLine();
+    readMatrix(walls, rows, cols, true);
+
+    return new PerfectMaze(rows, cols, walls);
+  }
+
+  private void readMatrix(PackedWalls walls, int rows, int cols, boolean bottom)
+      throws IOException {
+    for (int i = 0; i < rows; i++) {
+      if (!readRow(walls, (long) i * cols, cols, bottom))
+        throw new IOException("Not enough rows in the matrix");
+    }
+  }
+
+  /**
+   * Чтение одной строки матрицы
+   * @return <code>false</code>, если поток закончился и строки нет
+   */
+  private boolean readRow(PackedWalls walls, long offset, int cols, boolean bottom)
+      throws IOException {
+    int c = lineStart();
+    if (c < 0)
+      return false;
+    --position; // первый байт строки разбираем в общем цикле
+
+    int count = 0;
+    NumberFormatException error = null;
+    int length = 0; // длина текущего токена, сам токен - в token
+    while (true) {
+      if (position == limit && !fill()) {
+        c = -1;
+        break;
+      }
+      // быстрый путь внутри буфера, без вызовов на каждый байт
+      byte[] buffer = this.buffer;
+      int position = this.position, limit = this.limit;
+      c = 0;
+      while (position < limit) {
+        c = buffer[position++] & 0xFF;
+        if (c == '\n' || c == '\r')
+          break;
+        if (isSeparator(c)) {
+          if (length == 1 && (token[0] == '0' || token[0] == '1') && count < cols) {
+            // самый частый случай: хранилище заполнено нулями, так что пишем только стены
+            if (token[0] == '1')
+              setWall(walls, offset + count, bottom);
+            ++count;
+          } else if (length > 0) {
+            tokenLength = length;
+            error = endToken(walls, offset, cols, bottom, count++, error);
+          }
+          length = 0;
+        } else if (length == 0) {
+          token[0] = (byte) c;
+          length = 1;
+        } else {
+          if (length == token.length)
+            token = Arrays.copyOf(token, length * 2);
+          token[length++] = (byte) c;
+        }
+        c = 0;
+      }
+      this.position = position;
+      if (c == '\n' || c == '\r')
+        break;
+    }
+    if (length > 0) {
+      tokenLength = length;
+      error = endToken(walls, offset, cols, bottom, count++, error);
+    }
+    skipLineFeed = c == '\r';
+
+    // пустая строка после trim().split() - это один пустой токен
+    if (count == 0)
+      count = 1;
+    if (count != cols)
+      throw new IOException("Incorrect number of columns in a row");
+    if (error != null)
+      throw error;
+    return true;
+  }
+
+  private NumberFormatException endToken(PackedWalls walls, long offset, int cols,
+      boolean bottom, int index, NumberFormatException error) {
+    int length = tokenLength;
+    tokenLength = 0;
+    if (index >= cols || error != null)
+      return error; // строка все равно будет отвергнута
+
+    boolean wall;
+    if (length == 1 && (token[0] == '0' || token[0] == '1')) {
+      wall = token[0] == '1';
+    } else {
+      try {
+        wall = Integer.parseInt(new String(token, 0, length, StandardCharsets.UTF_8)) != 0;
+      } catch (NumberFormatException e) {
+        return e;
+      }
+    }
+
+    if (wall)
+      setWall(walls, offset + index, bottom);
+    return null;
+  }
+
+  private static void setWall(PackedWalls walls, long cell, boolean bottom) {
+    if (bottom) {
+      walls.setBottomWall(cell, true);
+    } else {
+      walls.setRightWall(cell, true);
+    }
+  }
+
+  private void appendToken(int c) {
+    if (tokenLength == token.length)
+      token = Arrays.copyOf(token, token.length * 2);
+    token[tokenLength++] = (byte) c;
+  }
+
+  // Строка целиком, как BufferedReader.readLine(): null, если поток закончился
+  private String readLine() throws IOException {
+    int c = lineStart();
+    if (c < 0)
+      return null;
+
+    tokenLength = 0;
+    while (c >= 0 && c != '\n' && c != '\r') {
+      appendToken(c);
+      c = next();
+    }
+    skipLineFeed = c == '\r';
+    String line = new String(token, 0, tokenLength, StandardCharsets.UTF_8);
+    tokenLength = 0;
+    return line;
+  }
+
+  // Первый байт новой строки (с пропуском '\n' после '\r') или -1
+  private int lineStart() throws IOException {
+    int c = next();
+    if (skipLineFeed) {
+      skipLineFeed = false;
+      if (c == '\n')
+        c = next();
+    }
+    return c;
+  }
+
+  private int next() throws IOException {
+    if (position == limit && !fill())
+      return -1;
+    return buffer[position++] & 0xFF;
+  }
+
+  private boolean fill() throws IOException {
+    limit = in.read(buffer, 0, BUFFER_SIZE);
+    position = 0;
+    if (limit <= 0) {
+      limit = 0;
+      return false;
+    }
+    bytesRead += limit;
+    return true;
+  }
+
+  // пробельные символы регулярного выражения \s (кроме переводов строки)
+  private static boolean isSeparator(int c) {
+    return c == ' ' || c == '\t' || c == 0x0B || c == '\f';
+  }
+}
@@ -0,0 +1,124 @@
+package domain.util;
+
+import domain.model.PerfectMaze;
+import domain.model.StorageBackend;
+import domain.structures.TiledWalls;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Файл лабиринта из плиток для лабиринтов больше кучи. Все числа - little-endian<br><br>
+ *
+ * <code>0</code>: сигнатура <code>PMZT</code><br>
+ * <code>4</code>: версия формата (<code>int</code>)<br>
+ * <code>8</code>: количество строк (<code>int</code>)<br>
+ * <code>12</code>: количество столбцов (<code>int</code>)<br>
+ * <code>16</code>: сторона плитки (<code>int</code>)<br>
+ * <code>20</code>: зарезервировано (<code>int</code> и <code>long</code>, 0)<br>
+ * <code>32</code>: плитки в формате {@link TiledWalls}<br><br>
+ *
+ * Стены не загружаются в память целиком: лабиринт работает поверх {@link TiledWalls}, которое
+ * держит в памяти не больше заданного количества байт плиток. Хранилище нужно закрыть после
+ * работы, а при записи - чтобы изменения попали в файл:
+ * <pre>
+ * try (TiledWalls walls = TiledMazeFormat.open(path, cacheBytes, false)) {
+ *   PerfectMaze maze = new PerfectMaze(walls.getRows(), walls.getColumns(), walls);
+ *   ...
+ * }
+ * </pre>
+ */
+public class TiledMazeFormat {
+  public static final int MAGIC = 0x545A4D50; // "PMZT" в little-endian
+  public static final int VERSION = 1;
+  public static final int HEADER_SIZE = 32;
+  public static final int DEFAULT_TILE_SIDE = 256;
+  public static final long DEFAULT_CACHE_BYTES = 64L << 20;
+
+  /**
+   * Новый файл без стен, открытый на запись. Лабиринт в него можно сгенерировать через
+   * {@link domain.algorithm.PerfectMazeGenerator#create(domain.structures.WallStorage)}
+   */
+  public static TiledWalls create(Path path, int rows, int columns, int tileSide,
+      long cacheBytes) throws IOException {
+    ArgumentCheckerUtil.checkMazeSize(rows, columns, StorageBackend.TILED);
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      TiledWalls walls =
+          new TiledWalls(channel, true, HEADER_SIZE, rows, columns, tileSide, cacheBytes);
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      header.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(columns);
+      header.putInt(tileSide).putInt(0).putLong(0).flip();
+      while (header.hasRemaining()) {
+        channel.write(header, header.position());
+      }
+      // файл сразу получает полный размер, а плитки без стен на диске не занимают места
+      long size = HEADER_SIZE + TiledWalls.fileSize(rows, columns, tileSide);
+      channel.write(ByteBuffer.allocate(1), size - 1);
+      return walls;
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * @param cacheBytes сколько байт плиток держать в памяти
+   * @param writable открыть ли файл на запись
+   */
+  public static TiledWalls open(Path path, long cacheBytes, boolean writable) throws IOException {
+    FileChannel channel = writable
+        ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+        : FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      while (header.hasRemaining()) {
+        if (channel.read(header, header.position()) < 0)
+          throw new IOException("File is truncated");
+      }
+      header.flip();
+
+      if (header.getInt() != MAGIC)
+        throw new IOException("Wrong file format");
+      int version = header.getInt();
+      if (version != VERSION)
+        throw new IOException("Unsupported format version: " + version);
+      int rows = header.getInt();
+      int columns = header.getInt();
+      int tileSide = header.getInt();
+      ArgumentCheckerUtil.checkMazeSize(rows, columns, StorageBackend.TILED);
+      TiledWalls walls =
+          new TiledWalls(channel, writable, HEADER_SIZE, rows, columns, tileSide, cacheBytes);
+      if (channel.size() < HEADER_SIZE + TiledWalls.fileSize(rows, columns, tileSide))
+        throw new IOException("File is truncated");
+      return walls;
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Сохранение лабиринта из любого хранилища. Ячейки копируются по плиткам, поэтому кэша хватает
+   * на одну плитку
+   */
+  public static void save(PerfectMaze maze, Path path) throws IOException {
+    int rows = maze.getRows(), columns = maze.getColumns();
+    int side = DEFAULT_TILE_SIDE;
+    try (TiledWalls walls = create(path, rows, columns, side, DEFAULT_CACHE_BYTES)) {
+      for (int tileRow = 0; tileRow < rows; tileRow += side) {
+        for (int tileColumn = 0; tileColumn < columns; tileColumn += side) {
+          for (int i = tileRow, rowEnd = Math.min(rows, tileRow + side); i < rowEnd; i++) {
+            for (int j = tileColumn, end = Math.min(columns, tileColumn + side); j < end; j++) {
+              walls.setWalls(maze.cellIndex(i, j), maze.getWalls(i, j));
+            }
+          }
+        }
+      }
+    }
+  }
+}
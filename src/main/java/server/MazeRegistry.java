@@ -0,0 +1,72 @@
+package server;
+
+import domain.algorithm.MazePathIndex;
+import domain.model.PerfectMaze;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Лабиринты сервера в памяти. Лабиринт после регистрации не изменяется, а индекс путей
+ * ({@link MazePathIndex}) строится один раз при регистрации, поэтому запросы к одному лабиринту
+ * выполняются параллельно и без блокировок: потоки только читают общие массивы
+ */
+public class MazeRegistry {
+  private final ConcurrentHashMap<String, Entry> mazes = new ConcurrentHashMap<>();
+  private final AtomicLong nextId = new AtomicLong(1);
+
+  /**
+   * Регистрация лабиринта под новым идентификатором. Лабиринт нельзя изменять после регистрации
+   */
+  public Entry register(PerfectMaze maze) {
+    Entry entry = new Entry(Long.toString(nextId.getAndIncrement()), maze);
+    mazes.put(entry.getId(), entry);
+    return entry;
+  }
+
+  /**
+   * @return лабиринт или null, если лабиринта с таким идентификатором нет
+   */
+  public Entry get(String id) {
+    return mazes.get(id);
+  }
+
+  public boolean remove(String id) {
+    return mazes.remove(id) != null;
+  }
+
+  public Collection<Entry> getAll() {
+    return mazes.values();
+  }
+
+  public int size() {
+    return mazes.size();
+  }
+
+  /**
+   * Зарегистрированный лабиринт вместе с индексом путей
+   */
+  public static class Entry {
+    private final String id;
+    private final PerfectMaze maze;
+    private final MazePathIndex pathIndex;
+
+    Entry(String id, PerfectMaze maze) {
+      this.id = id;
+      this.maze = maze;
+      pathIndex = new MazePathIndex(maze);
+    }
+
+    public String getId() {
+      return id;
+    }
+
+    public PerfectMaze getMaze() {
+      return maze;
+    }
+
+    public MazePathIndex getPathIndex() {
+      return pathIndex;
+    }
+  }
+}
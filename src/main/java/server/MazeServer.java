@@ -0,0 +1,240 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import domain.algorithm.PerfectMazeGenerator;
+import domain.model.PerfectMaze;
+import domain.model.StorageBackend;
+import domain.util.ArgumentCheckerUtil;
+import domain.util.Converter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Сервер лабиринтов без GUI на встроенном в JDK <code>com.sun.net.httpserver</code>. Слушает
+ * только loopback-адрес. Лабиринты хранятся в {@link MazeRegistry}, каждый запрос выполняется
+ * в своем виртуальном потоке<br><br>
+ *
+ * Запросы (ответы - <code>text/plain</code>):<br>
+ * <code>POST /mazes?rows=R&amp;columns=C[&amp;seed=S]</code> - генерация, ответ - идентификатор
+ * <br>
+ * <code>POST /mazes</code> с лабиринтом в текстовом формате в теле - загрузка, ответ -
+ * идентификатор<br>
+ * <code>GET /mazes</code> - список лабиринтов: по строке <code>id rows columns</code><br>
+ * <code>GET /mazes/{id}</code> - лабиринт в текстовом формате<br>
+ * <code>GET /mazes/{id}/path?from=x,y&amp;to=x,y</code> - путь: по строке <code>x y</code> на
+ * ячейку, от <code>from</code> до <code>to</code><br>
+ * <code>DELETE /mazes/{id}</code> - удаление<br><br>
+ *
+ * Ошибки в аргументах возвращаются с кодом 400, неизвестный лабиринт - 404
+ */
+public class MazeServer implements AutoCloseable {
+  public static final int DEFAULT_PORT = 8080;
+  // индекс путей занимает 12 байт на ячейку, так что один лабиринт - до 200 Мб
+  public static final long DEFAULT_MAX_CELLS = 1L << 24;
+
+  private static final String PREFIX = "/mazes";
+
+  private final MazeRegistry registry = new MazeRegistry();
+  private final long maxCells;
+  private final HttpServer server;
+  private final ExecutorService executor;
+
+  /**
+   * @param port порт на loopback-адресе. <code>0</code> - любой свободный
+   * @param maxCells наибольшее количество ячеек в лабиринте
+   */
+  public MazeServer(int port, long maxCells) throws IOException {
+    this.maxCells = maxCells;
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+    executor = Executors.newVirtualThreadPerTaskExecutor();
+    server.setExecutor(executor);
+    server.createContext(PREFIX, this::handle);
+  }
+
+  public static void main(String[] args) throws IOException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+    MazeServer server = new MazeServer(port, DEFAULT_MAX_CELLS);
+    server.start();
+    System.out.println("Maze server is listening on http://"
+        + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + PREFIX);
+  }
+
+  public void start() {
+    server.start();
+  }
+
+  public InetSocketAddress getAddress() {
+    return server.getAddress();
+  }
+
+  public MazeRegistry getRegistry() {
+    return registry;
+  }
+
+  /**
+   * Остановка сервера. Запросы, которые уже выполняются, завершаются
+   */
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.close();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      try {
+        dispatch(exchange);
+      } catch (IllegalArgumentException | IndexOutOfBoundsException | IOException e) {
+        // если ответ уже начат (обрыв соединения при отправке лабиринта), то отвечать поздно
+        if (exchange.getResponseCode() != -1)
+          throw e;
+        send(exchange, 400, e.getMessage());
+      }
+    }
+  }
+
+  private void dispatch(HttpExchange exchange) throws IOException {
+    String[] parts = exchange.getRequestURI().getRawPath().substring(PREFIX.length()).split("/");
+    Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+    String method = exchange.getRequestMethod();
+
+    if (!parts[0].isEmpty()) {
+      send(exchange, 404, "Unknown request");
+    } else if (parts.length <= 1) {
+      switch (method) {
+        case "GET" -> list(exchange);
+        case "POST" -> create(exchange, query);
+        default -> send(exchange, 405, "Method not allowed");
+      }
+    } else {
+      answer(exchange, parts, query, method);
+    }
+  }
+
+  private void answer(HttpExchange exchange, String[] parts, Map<String, String> query,
+      String method) throws IOException {
+    MazeRegistry.Entry entry = registry.get(parts[1]);
+    if (entry == null) {
+      send(exchange, 404, "Maze not found: " + parts[1]);
+    } else if (parts.length == 2 && method.equals("GET")) {
+      exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+      exchange.sendResponseHeaders(200, 0);
+      Converter.saveMazeToStream(entry.getMaze(), exchange.getResponseBody());
+    } else if (parts.length == 2 && method.equals("DELETE")) {
+      registry.remove(entry.getId());
+      exchange.sendResponseHeaders(204, -1);
+    } else if (parts.length == 3 && parts[2].equals("path") && method.equals("GET")) {
+      solve(exchange, entry, query);
+    } else {
+      send(exchange, 404, "Unknown request");
+    }
+  }
+
+  private void list(HttpExchange exchange) throws IOException {
+    StringBuilder body = new StringBuilder();
+    for (MazeRegistry.Entry entry : registry.getAll()) {
+      PerfectMaze maze = entry.getMaze();
+      body.append(entry.getId()).append(' ').append(maze.getRows()).append(' ')
+          .append(maze.getColumns()).append('\n');
+    }
+    send(exchange, 200, body.toString());
+  }
+
+  private void create(HttpExchange exchange, Map<String, String> query) throws IOException {
+    PerfectMaze maze;
+    if (query.containsKey("rows") || query.containsKey("columns")) {
+      int rows = Integer.parseInt(require(query, "rows"));
+      int columns = Integer.parseInt(require(query, "columns"));
+      ArgumentCheckerUtil.checkMazeSize(rows, columns, StorageBackend.LARGE);
+      checkCells((long) rows * columns);
+      PerfectMazeGenerator generator = query.containsKey("seed")
+          ? new PerfectMazeGenerator(
+              rows, columns, StorageBackend.LARGE, Long.parseLong(query.get("seed")))
+          : new PerfectMazeGenerator(rows, columns, StorageBackend.LARGE);
+      maze = generator.create();
+    } else {
+      maze = Converter.loadMazeFromStream(exchange.getRequestBody(), maxCells);
+    }
+
+    MazeRegistry.Entry entry = registry.register(maze);
+    exchange.getResponseHeaders().set("Location", PREFIX + "/" + entry.getId());
+    send(exchange, 201, entry.getId());
+  }
+
+  private void solve(HttpExchange exchange, MazeRegistry.Entry entry, Map<String, String> query)
+      throws IOException {
+    int columns = entry.getMaze().getColumns();
+    int start = parseCell(require(query, "from"), entry.getMaze());
+    int end = parseCell(require(query, "to"), entry.getMaze());
+    int[] path = entry.getPathIndex().findPathIndices(start, end);
+    if (path == null) {
+      send(exchange, 404, "Path not found");
+      return;
+    }
+
+    StringBuilder body = new StringBuilder(path.length * 8);
+    for (int cell : path) {
+      body.append(cell % columns).append(' ').append(cell / columns).append('\n');
+    }
+    send(exchange, 200, body.toString());
+  }
+
+  private void checkCells(long cells) {
+    if (cells > maxCells)
+      throw new ArrayIndexOutOfBoundsException(
+          "cells count cannot be more " + maxCells + ", cells: " + cells);
+  }
+
+  // Ячейка в формате "x,y" - столбец и строка, как у Point
+  private static int parseCell(String value, PerfectMaze maze) {
+    int comma = value.indexOf(',');
+    if (comma < 0)
+      throw new IllegalArgumentException("cell must be x,y, value: " + value);
+    int x = Integer.parseInt(value.substring(0, comma).trim());
+    int y = Integer.parseInt(value.substring(comma + 1).trim());
+    ArgumentCheckerUtil.checkIndexBounds(x, maze.getColumns());
+    ArgumentCheckerUtil.checkIndexBounds(y, maze.getRows());
+    return (int) maze.cellIndex(y, x);
+  }
+
+  private static String require(Map<String, String> query, String name) {
+    String value = query.get(name);
+    if (value == null)
+      throw new IllegalArgumentException("missing parameter: " + name);
+    return value;
+  }
+
+  private static Map<String, String> parseQuery(String rawQuery) {
+    Map<String, String> query = new HashMap<>();
+    if (rawQuery == null)
+      return query;
+    for (String pair : rawQuery.split("&")) {
+      int eq = pair.indexOf('=');
+      String name = eq < 0 ? pair : pair.substring(0, eq);
+      String value = eq < 0 ? "" : pair.substring(eq + 1);
+      query.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+          URLDecoder.decode(value, StandardCharsets.UTF_8));
+    }
+    return query;
+  }
+
+  private static void send(HttpExchange exchange, int status, String body) throws IOException {
+    byte[] bytes = (body == null ? "" : body).getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+    exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+    if (bytes.length > 0) {
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(bytes);
+      }
+    }
+  }
+}
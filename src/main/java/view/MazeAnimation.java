@@ -0,0 +1,182 @@
+package view;
+
+import domain.algorithm.GenerationListener;
+import domain.algorithm.SolverListener;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import javafx.animation.AnimationTimer;
+
+/**
+ * Пошаговая анимация генерации и поиска пути. Поток алгоритма получает события как наблюдатель
+ * ({@link GenerationListener}, {@link SolverListener}) и кладет их в ограниченный кольцевой
+ * буфер, а когда буфер заполнен - ждет. Поток JavaFX раз в кадр забирает пачку событий, отмечает
+ * ячейки в {@link MazeRenderer#setMarks(byte[])} и перерисовывает видимую часть<br><br>
+ *
+ * Размер пачки подобран так, чтобы анимация шла около {@link #DURATION_SECONDS} секунд при
+ * любом размере лабиринта, поэтому на кадр приходится не больше одной пачки и одной отрисовки,
+ * а алгоритм работает со скоростью анимации
+ */
+class MazeAnimation extends AnimationTimer implements GenerationListener, SolverListener {
+  static final int DURATION_SECONDS = 10;
+  private static final int FRAMES_PER_SECOND = 60;
+  private static final int MIN_BUFFER = 1024;
+
+  // событие - тип в старших битах и ячейка или строка в младших
+  private static final int TYPE_SHIFT = 60;
+  private static final long VALUE_MASK = (1L << TYPE_SHIFT) - 1;
+  private static final int JOINED = 1;
+  private static final int ROW = 2;
+  private static final int VISITED = 3;
+  private static final int BACKTRACKED = 4;
+
+  private final MazeRenderer renderer;
+  private final Runnable redraw;
+  private final int columns;
+  private final byte[] marks;
+  private final int batch;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notFull = lock.newCondition();
+  private final long[] buffer;
+  private final long[] drained;
+  private int head;
+  private int size;
+  private boolean closed;
+
+  private Runnable onFinished; // после конца алгоритма: вызывается, когда буфер опустеет
+
+  /**
+   * @param expectedEvents примерное количество событий, по нему выбирается размер пачки
+   * @param redraw перенос отрисовки на экран
+   */
+  MazeAnimation(MazeRenderer renderer, Runnable redraw, long expectedEvents) {
+    this.renderer = renderer;
+    this.redraw = redraw;
+    columns = renderer.getColumns();
+    marks = new byte[renderer.getRows() * columns];
+    batch = (int) Math.max(1, expectedEvents / ((long) DURATION_SECONDS * FRAMES_PER_SECOND));
+    buffer = new long[Math.max(MIN_BUFFER, 2 * batch)];
+    drained = new long[batch];
+    renderer.setMarks(marks);
+  }
+
+  @Override
+  public void cellsJoined(int row, int column) {
+    put(JOINED, (long) row * columns + column);
+  }
+
+  @Override
+  public void rowCompleted(int row, int[] mazeRow) {
+    put(ROW, row);
+  }
+
+  @Override
+  public void cellVisited(long cell) {
+    put(VISITED, cell);
+  }
+
+  @Override
+  public void cellBacktracked(long cell) {
+    put(BACKTRACKED, cell);
+  }
+
+  /**
+   * Алгоритм закончил работу. <code>onFinished</code> вызовется в потоке JavaFX, когда будут
+   * показаны все события
+   */
+  void finish(Runnable onFinished) {
+    this.onFinished = onFinished;
+  }
+
+  /**
+   * Остановка анимации. Поток алгоритма, который ждет места в буфере или кладет следующее
+   * событие, получает <code>CancellationException</code>
+   */
+  void cancel() {
+    lock.lock();
+    try {
+      closed = true;
+      notFull.signalAll();
+    } finally {
+      lock.unlock();
+    }
+    stop();
+  }
+
+  /**
+   * Пропуск оставшихся событий, если алгоритм уже закончил работу
+   * @return <code>true</code>, если анимация завершена
+   */
+  boolean skip() {
+    if (onFinished == null)
+      return false;
+    cancel();
+    onFinished.run();
+    return true;
+  }
+
+  @Override
+  public void handle(long now) {
+    int count;
+    lock.lock();
+    try {
+      count = Math.min(size, batch);
+      for (int i = 0; i < count; i++) {
+        drained[i] = buffer[(head + i) % buffer.length];
+      }
+      head = (head + count) % buffer.length;
+      size -= count;
+      notFull.signalAll();
+    } finally {
+      lock.unlock();
+    }
+
+    for (int i = 0; i < count; i++) {
+      apply(drained[i]);
+    }
+    if (count > 0)
+      redraw.run();
+    if (count < batch && onFinished != null)
+      skip();
+  }
+
+  private void apply(long event) {
+    int type = (int) (event >>> TYPE_SHIFT);
+    long value = event & VALUE_MASK;
+    switch (type) {
+      case JOINED -> {
+        marks[(int) value] = MazeRenderer.MARK_JOINED;
+        marks[(int) value + 1] = MazeRenderer.MARK_JOINED;
+      }
+      case ROW -> {
+        // готовая строка рисуется стенами, отметки объединений с нее снимаются
+        int from = (int) value * columns;
+        Arrays.fill(marks, from, from + columns, MazeRenderer.MARK_NONE);
+        renderer.setReadyRows((int) value + 1);
+      }
+      case VISITED -> marks[(int) value] = MazeRenderer.MARK_VISITED;
+      case BACKTRACKED -> marks[(int) value] = MazeRenderer.MARK_BACKTRACKED;
+      default -> {}
+    }
+  }
+
+  private void put(int type, long value) {
+    lock.lock();
+    try {
+      while (size == buffer.length && !closed) {
+        notFull.await();
+      }
+      if (closed)
+        throw new CancellationException();
+      buffer[(head + size) % buffer.length] = (long) type << TYPE_SHIFT | value;
+      size++;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CancellationException();
+    } finally {
+      lock.unlock();
+    }
+  }
+}
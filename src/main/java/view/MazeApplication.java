@@ -1,19 +1,32 @@
 package view;
 
-import domain.algorithm.PerfectMazeDFS;
+import domain.algorithm.PathFinder;
+import domain.algorithm.PathFinderStrategy;
 import domain.algorithm.PerfectMazeGenerator;
+import domain.metrics.MazeMetricsRecorder;
 import domain.model.PerfectMaze;
+import domain.model.StorageBackend;
+import domain.structures.PackedWalls;
 import domain.util.Converter;
 import java.awt.*;
 import java.io.File;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
+import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
+import javafx.concurrent.WorkerStateEvent;
+import javafx.event.EventHandler;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.*;
 import javafx.scene.control.Button;
 import javafx.scene.control.Dialog;
@@ -22,18 +35,37 @@ import javafx.scene.control.TextField;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
-import javafx.scene.paint.Color;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.util.Pair;
 
 public class MazeApplication extends Application {
+  private static final int AREA_SIZE = 500; // размер области лабиринта в пикселях
+  private static final int MAX_SIDE = 5000; // наибольшая сторона лабиринта в GUI
+  private static final double ZOOM_STEP = 1.25;
+
   private PerfectMaze currentMaze;
+  private PathFinderStrategy solverStrategy = PathFinderStrategy.DFS; // алгоритм поиска пути
   private Canvas mazeArea;
+  private final MazeRenderer renderer = new MazeRenderer(AREA_SIZE, AREA_SIZE);
+  private double dragX; // последняя точка при перетаскивании лабиринта мышью
+  private double dragY;
+
+  // генерация, поиск пути, загрузка и сохранение выполняются не в потоке JavaFX
+  private final ExecutorService background = Executors.newVirtualThreadPerTaskExecutor();
+  private Task<?> currentTask;
+  private HBox buttons;
+  private ProgressBar progressBar;
+  private Button cancelBtn;
+  private CheckBox animateBox;
+  private MazeAnimation animation; // пошаговая анимация, которая еще показывается, или null
 
   @Override
   public void start(Stage primaryStage) {
-    mazeArea = new Canvas(500, 500);
+    // метрики выключены, пока их не включат через JMX (domain.metrics:type=MazeMetrics)
+    MazeMetricsRecorder.registerMBean();
+    mazeArea = new Canvas(AREA_SIZE, AREA_SIZE);
+    setUpViewport();
 
     Button generateNewMazeBtn = new Button("Generate Maze");
     Button solveMazeBtn = new Button("Solve Maze");
@@ -43,10 +75,18 @@ public class MazeApplication extends Application {
     loadMazeBtn.setMaxWidth(Double.MAX_VALUE);
     saveMazeBtn.setMaxWidth(Double.MAX_VALUE);
 
-    HBox buttons = new HBox(20, generateNewMazeBtn, solveMazeBtn, loadMazeBtn, saveMazeBtn);
+    buttons = new HBox(20, generateNewMazeBtn, solveMazeBtn, loadMazeBtn, saveMazeBtn);
     buttons.setAlignment(Pos.CENTER);
 
-    VBox root = new VBox(10, mazeArea, buttons);
+    progressBar = new ProgressBar(0);
+    progressBar.setPrefWidth(300);
+    cancelBtn = new Button("Cancel");
+    cancelBtn.setDisable(true);
+    animateBox = new CheckBox("Animate");
+    HBox progress = new HBox(20, progressBar, cancelBtn, animateBox);
+    progress.setAlignment(Pos.CENTER);
+
+    VBox root = new VBox(10, mazeArea, buttons, progress);
     root.setAlignment(Pos.CENTER);
 
     Scene scene = new Scene(root);
@@ -54,13 +94,26 @@ public class MazeApplication extends Application {
     primaryStage.setTitle("Maze Application");
     primaryStage.setResizable(false);
     primaryStage.setWidth(530);
-    primaryStage.setHeight(600);
+    primaryStage.setHeight(640);
     primaryStage.show();
 
     generateNewMazeBtn.setOnAction(e -> handleGenerateNewMaze());
     solveMazeBtn.setOnAction(e -> handleSolveMaze());
     loadMazeBtn.setOnAction(e -> handleLoadMaze());
     saveMazeBtn.setOnAction(e -> handleSaveMaze());
+    // отмена задачи, а после ее конца - пропуск оставшейся анимации
+    cancelBtn.setOnAction(e -> {
+      if (currentTask != null) {
+        currentTask.cancel();
+      } else {
+        stopAnimation();
+      }
+    });
+  }
+
+  @Override
+  public void stop() {
+    background.shutdownNow();
   }
 
   // Дополнительное окно для ввода размеров нового лабиринта
@@ -72,10 +125,11 @@ public class MazeApplication extends Application {
     dialog.getDialogPane().getButtonTypes().addAll(
         generateButtonType, ButtonType.CANCEL); // кнопка Cancel
 
+    String sizeRange = "2 - " + MAX_SIDE;
     TextField rowsField = new TextField();
-    rowsField.setPromptText("2 - 50");
+    rowsField.setPromptText(sizeRange);
     TextField colsField = new TextField();
-    colsField.setPromptText("2 - 50");
+    colsField.setPromptText(sizeRange);
 
     GridPane grid = new GridPane();
     grid.setHgap(12);
@@ -133,6 +187,11 @@ public class MazeApplication extends Application {
     grid.add(endRowField, 3, 0);
     grid.add(new Label("End col:"), 2, 1);
     grid.add(endColField, 3, 1);
+    ComboBox<PathFinderStrategy> strategyBox =
+        new ComboBox<>(FXCollections.observableArrayList(PathFinderStrategy.values()));
+    strategyBox.setValue(solverStrategy);
+    grid.add(new Label("Algorithm:"), 0, 2);
+    grid.add(strategyBox, 1, 2, 3, 1);
     dialog.getDialogPane().setContent(grid);
 
     dialog.setResultConverter(btn -> {
@@ -143,6 +202,7 @@ public class MazeApplication extends Application {
         int startX = Integer.parseInt(startColField.getText().trim());
         int endY = Integer.parseInt(endRowField.getText().trim());
         int endX = Integer.parseInt(endColField.getText().trim());
+        solverStrategy = strategyBox.getValue();
 
         return new Pair<>(new Point(startX, startY), new Point(endX, endY));
       } catch (NumberFormatException e) {
@@ -159,18 +219,65 @@ public class MazeApplication extends Application {
       int rows = pair.getKey();
       int cols = pair.getValue();
 
-      if (rows < 2 || rows > 50 || cols < 2 || cols > 50) {
+      if (rows > MAX_SIDE || cols > MAX_SIDE || !StorageBackend.LARGE.fits(rows, cols)) {
         showErrorAlert("Incorrect sizes!");
         return;
       }
-      PerfectMazeGenerator generator = new PerfectMazeGenerator(rows, cols);
-      PerfectMaze newMaze = generator.create();
-      currentMaze = newMaze;
-
-      drawMaze(newMaze);
+      generateInBackground(rows, cols);
     });
   }
 
+  // Генерация в фоне: готовые строки рисуются по мере появления, раз в кадр, а в режиме анимации
+  // показываются и объединения ячеек
+  private void generateInBackground(int rows, int cols) {
+    stopAnimation();
+    StorageBackend backend =
+        StorageBackend.STANDARD.fits(rows, cols) ? StorageBackend.STANDARD : StorageBackend.LARGE;
+    PerfectMazeGenerator generator = new PerfectMazeGenerator(rows, cols, backend);
+    PackedWalls walls = new PackedWalls((long) rows * cols);
+    // строки пишутся до увеличения счетчика, поэтому поток JavaFX видит готовые строки целиком
+    AtomicInteger readyRows = new AtomicInteger();
+
+    Task<PerfectMaze> task = new Task<>() {
+      @Override
+      protected PerfectMaze call() {
+        return generator.create(walls, (row, mazeRow) -> {
+          if (isCancelled())
+            throw new CancellationException();
+          readyRows.set(row + 1);
+          updateProgress(row + 1, rows);
+        });
+      }
+    };
+
+    renderer.setGenerating(walls, rows, cols);
+    if (animateBox.isSelected()) {
+      // событий около двух на ячейку: объединения и готовые строки
+      MazeAnimation steps = new MazeAnimation(renderer, this::redraw, 2L * rows * cols);
+      generator.setListener(steps);
+      runAnimated(task, steps, maze -> currentMaze = maze, this::drawMaze);
+      return;
+    }
+    AnimationTimer frames = new AnimationTimer() {
+      private int drawnRows = -1;
+
+      @Override
+      public void handle(long now) {
+        int ready = readyRows.get();
+        if (ready != drawnRows) {
+          drawnRows = ready;
+          renderer.setReadyRows(ready);
+          redraw();
+        }
+      }
+    };
+
+    runInBackground(task, maze -> {
+      currentMaze = maze;
+      drawMaze(maze);
+    }, frames);
+  }
+
   // Нахождения пути между двумя точками
   private void handleSolveMaze() {
     if (currentMaze == null) {
@@ -189,13 +296,34 @@ public class MazeApplication extends Application {
             + "Range: rows 0–" + (rows - 1) + ", cols 0–" + (cols - 1));
         return;
       }
-      PerfectMazeDFS dfs = new PerfectMazeDFS(currentMaze);
-      List<Point> path = dfs.findPath(start, end);
-
-      if (path == null || path.isEmpty()) {
-        showErrorAlert("Path not found");
+      // поиск пути без анимации не проверяет отмену: после отмены он доработает в фоне, но путь
+      // не покажется
+      stopAnimation();
+      PerfectMaze maze = currentMaze;
+      PathFinder finder = solverStrategy.create(maze);
+      Task<List<Point>> task = new Task<>() {
+        @Override
+        protected List<Point> call() {
+          return finder.findPath(start, end);
+        }
+      };
+      Consumer<List<Point>> showPath = path -> {
+        if (path == null || path.isEmpty()) {
+          showErrorAlert("Path not found");
+        } else {
+          drawPath(maze, path);
+        }
+      };
+
+      if (animateBox.isSelected()) {
+        if (renderer.getMaze() != maze)
+          renderer.setMaze(maze);
+        renderer.setPath(null);
+        MazeAnimation steps = new MazeAnimation(renderer, this::redraw, maze.getCells());
+        finder.setListener(steps);
+        runAnimated(task, steps, path -> {}, showPath);
       } else {
-        drawPath(currentMaze, path);
+        runInBackground(task, showPath, null);
       }
     });
   }
@@ -203,17 +331,26 @@ public class MazeApplication extends Application {
   // Загрузка лабиринта из файла
   private void handleLoadMaze() {
     FileChooser fileChooser = new FileChooser();
-    fileChooser.getExtensionFilters().add(
-        new FileChooser.ExtensionFilter("Лабиринт (*.txt)", "*.txt"));
+    fileChooser.getExtensionFilters().addAll(
+        new FileChooser.ExtensionFilter(
+            "Лабиринт (*.txt, *.mzb, *.mza)", "*.txt", "*.mzb", "*.mza"),
+        new FileChooser.ExtensionFilter("Лабиринт (*.txt)", "*.txt"),
+        new FileChooser.ExtensionFilter("Двоичный лабиринт (*.mzb)", "*.mzb"),
+        new FileChooser.ExtensionFilter("Сжатый лабиринт (*.mza)", "*.mza"));
     File selectedFile = fileChooser.showOpenDialog(mazeArea.getScene().getWindow());
 
     if (selectedFile != null) {
-      try {
-        currentMaze = Converter.loadMazeFromFile(selectedFile);
-        drawMaze(currentMaze);
-      } catch (Exception ex) {
-        showErrorAlert("Load error\n" + ex.getMessage());
-      }
+      Task<PerfectMaze> task = new Task<>() {
+        @Override
+        protected PerfectMaze call() throws Exception {
+          return Converter.loadMaze(selectedFile);
+        }
+      };
+      task.setOnFailed(e -> showErrorAlert("Load error\n" + task.getException().getMessage()));
+      runInBackground(task, maze -> {
+        currentMaze = maze;
+        drawMaze(maze);
+      }, null);
     }
   }
 
@@ -224,85 +361,171 @@ public class MazeApplication extends Application {
       return;
     }
     FileChooser fileChooser = new FileChooser();
-    fileChooser.getExtensionFilters().add(
-        new FileChooser.ExtensionFilter("Лабиринт (*.txt)", "*.txt"));
+    FileChooser.ExtensionFilter textFilter =
+        new FileChooser.ExtensionFilter("Лабиринт (*.txt)", "*.txt");
+    FileChooser.ExtensionFilter binaryFilter =
+        new FileChooser.ExtensionFilter("Двоичный лабиринт (*.mzb)", "*.mzb");
+    FileChooser.ExtensionFilter archiveFilter =
+        new FileChooser.ExtensionFilter("Сжатый лабиринт (*.mza)", "*.mza");
+    fileChooser.getExtensionFilters().addAll(textFilter, binaryFilter, archiveFilter);
     fileChooser.setInitialFileName("New_maze");
     File selectedFile = fileChooser.showSaveDialog(mazeArea.getScene().getWindow());
 
     if (selectedFile != null) {
       String filePath = selectedFile.getAbsolutePath();
-      if (!filePath.toLowerCase().endsWith(".txt"))
-        filePath += ".txt";
+      FileChooser.ExtensionFilter selected = fileChooser.getSelectedExtensionFilter();
+      String extension = selected == binaryFilter ? Converter.BINARY_EXTENSION
+          : selected == archiveFilter ? Converter.ARCHIVE_EXTENSION
+          : Converter.TEXT_EXTENSION;
+      if (!filePath.toLowerCase().endsWith(extension))
+        filePath += extension;
+
+      PerfectMaze maze = currentMaze;
+      String path = filePath;
+      Task<Void> task = new Task<>() {
+        @Override
+        protected Void call() throws Exception {
+          Converter.saveMaze(maze, path);
+          return null;
+        }
+      };
+      task.setOnFailed(e -> showErrorAlert("File not saved\n" + task.getException().getMessage()));
+      runInBackground(task, result -> {}, null);
+    }
+  }
 
-      try {
-        Converter.saveMazeToFile(currentMaze, filePath);
-      } catch (Exception ex) {
-        showErrorAlert("File not saved\n" + ex.getMessage());
+  /**
+   * Запуск задачи в фоновом виртуальном потоке. Пока задача выполняется, кнопки действий
+   * выключены, полоса показывает прогресс, а задачу можно отменить. Если задача не удалась или
+   * отменена, то показывается прежний лабиринт
+   * @param onSuccess вызывается в потоке JavaFX с результатом задачи
+   * @param frames отрисовка по ходу выполнения или null
+   */
+  private <T> void runInBackground(Task<T> task, Consumer<T> onSuccess, AnimationTimer frames) {
+    stopAnimation();
+    EventHandler<WorkerStateEvent> onFailed = task.getOnFailed();
+    currentTask = task;
+    setBusy(true);
+    progressBar.progressProperty().bind(task.progressProperty());
+
+    task.setOnSucceeded(e -> {
+      finishTask(frames);
+      onSuccess.accept(task.getValue());
+    });
+    task.setOnFailed(e -> {
+      finishTask(frames);
+      stopAnimation();
+      restoreMaze();
+      if (onFailed != null) {
+        onFailed.handle(e);
+      } else {
+        showErrorAlert("Something went wrong\n" + task.getException().getMessage());
       }
+    });
+    task.setOnCancelled(e -> {
+      finishTask(frames);
+      stopAnimation();
+      restoreMaze();
+    });
+
+    if (frames != null)
+      frames.start();
+    background.execute(task);
+  }
+
+  /**
+   * Запуск задачи с пошаговой анимацией. Алгоритм ждет анимацию, когда она отстает больше чем на
+   * буфер событий, а результат показывается, когда анимация дойдет до конца или будет пропущена
+   * кнопкой Cancel
+   * @param onSuccess вызывается в потоке JavaFX с результатом сразу после конца задачи
+   * @param onShown вызывается в потоке JavaFX с результатом после конца анимации
+   */
+  private <T> void runAnimated(Task<T> task, MazeAnimation steps, Consumer<T> onSuccess,
+      Consumer<T> onShown) {
+    runInBackground(task, result -> {
+      onSuccess.accept(result);
+      cancelBtn.setDisable(false);
+      steps.finish(() -> {
+        animation = null;
+        cancelBtn.setDisable(true);
+        onShown.accept(result);
+      });
+    }, null);
+    animation = steps;
+    steps.start();
+  }
+
+  // Остановка анимации: если задача уже закончилась, то ее результат показывается сразу
+  private void stopAnimation() {
+    MazeAnimation steps = animation;
+    animation = null;
+    if (steps != null && !steps.skip())
+      steps.cancel();
+  }
+
+  private void finishTask(AnimationTimer frames) {
+    if (frames != null)
+      frames.stop();
+    progressBar.progressProperty().unbind();
+    progressBar.setProgress(0);
+    currentTask = null;
+    setBusy(false);
+  }
+
+  private void setBusy(boolean busy) {
+    buttons.setDisable(busy);
+    cancelBtn.setDisable(!busy);
+  }
+
+  // Возврат к последнему готовому лабиринту после отмененной генерации
+  private void restoreMaze() {
+    if (renderer.isGenerating() || renderer.getMaze() != currentMaze) {
+      renderer.setMaze(currentMaze);
+      redraw();
     }
   }
 
+  // Масштаб колесом мыши, сдвиг перетаскиванием, двойной щелчок - весь лабиринт
+  private void setUpViewport() {
+    mazeArea.setOnScroll(e -> {
+      if (e.getDeltaY() == 0)
+        return;
+      renderer.zoom(e.getDeltaY() > 0 ? ZOOM_STEP : 1 / ZOOM_STEP, e.getX(), e.getY());
+      redraw();
+    });
+    mazeArea.setOnMousePressed(e -> {
+      dragX = e.getX();
+      dragY = e.getY();
+      if (e.getClickCount() == 2) {
+        renderer.fit();
+        redraw();
+      }
+    });
+    mazeArea.setOnMouseDragged(e -> {
+      renderer.pan(e.getX() - dragX, e.getY() - dragY);
+      dragX = e.getX();
+      dragY = e.getY();
+      redraw();
+    });
+  }
+
   // Отрисовка лабиринта
   private void drawMaze(PerfectMaze maze) {
-    GraphicsContext gc = mazeArea.getGraphicsContext2D();
-    gc.setFill(Color.WHITE);
-    gc.fillRect(0, 0, mazeArea.getWidth(), mazeArea.getHeight());
-
-    int rows = maze.getRows();
-    int cols = maze.getColumns();
-    double cellSize = Math.min(500.0 / cols, 500.0 / rows); // размер ячейки
-    gc.setStroke(Color.BLACK);
-    gc.setLineWidth(2); // толщина стен - 2 пикселя
-
-    int[][] rightWalls = maze.getRightWallsMatrix();
-    int[][] bottomWalls = maze.getBottomWallsMatrix();
-    // отрисовка лабиринта
-    for (int r = 0; r < rows; r++) {
-      for (int c = 0; c < cols; c++) {
-        double x = c * cellSize;
-        double y = r * cellSize;
-
-        if (rightWalls[r][c] == 1)
-          gc.strokeLine(x + cellSize, y, x + cellSize, y + cellSize);
-
-        if (bottomWalls[r][c] == 1)
-          gc.strokeLine(x, y + cellSize, x + cellSize, y + cellSize);
-      }
-    }
-    gc.strokeLine(0, 0, cols * cellSize, 0); // Верхняя горизонтальная линия
-    gc.strokeLine(0, 0, 0, rows * cellSize); // Левая вертикальная линия
-    gc.strokeLine(
-        0, rows * cellSize, cols * cellSize, rows * cellSize); // Нижняя горизонтальная линия
-    gc.strokeLine(
-        cols * cellSize, 0, cols * cellSize, rows * cellSize); // Правая вертикальная линия
+    renderer.setMaze(maze);
+    redraw();
   }
 
   // Отрисовка пути между двумя точками в лабиринте
   private void drawPath(PerfectMaze maze, List<Point> path) {
-    drawMaze(maze);
-    if (path == null || path.isEmpty())
-      return;
-
-    GraphicsContext gc = mazeArea.getGraphicsContext2D();
-
-    int rows = maze.getRows();
-    int cols = maze.getColumns();
-    double cellSize = Math.min(500.0 / cols, 500.0 / rows); // размер ячейки
-    gc.setStroke(Color.RED); // цвет пути
-    gc.setLineWidth(2); // толщина пути - 2 пикселя
-
-    Point prev = path.get(0);
-    for (int i = 1; i < path.size(); i++) {
-      Point current = path.get(i);
-
-      double x1 = prev.x * cellSize + cellSize / 2;
-      double y1 = prev.y * cellSize + cellSize / 2;
-      double x2 = current.x * cellSize + cellSize / 2;
-      double y2 = current.y * cellSize + cellSize / 2;
+    if (renderer.getMaze() != maze)
+      renderer.setMaze(maze);
+    renderer.setPath(path);
+    redraw();
+  }
 
-      gc.strokeLine(x1, y1, x2, y2);
-      prev = current;
-    }
+  // Перенос видимой части лабиринта на холст одним изображением
+  private void redraw() {
+    mazeArea.getGraphicsContext2D().drawImage(renderer.renderImage(), 0, 0);
   }
 
   // Валидация точки по координатам
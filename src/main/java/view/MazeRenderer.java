@@ -0,0 +1,404 @@
+package view;
+
+import domain.constants.Constants;
+import domain.model.PerfectMaze;
+import domain.structures.WallStorage;
+import java.awt.*;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongToIntFunction;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.image.WritablePixelFormat;
+
+/**
+ * Растровая отрисовка лабиринта в буфер пикселей <code>int[]</code> (ARGB) с переносом в
+ * <code>WritableImage</code> одним вызовом <code>PixelWriter.setPixels</code>. Вместо отдельной
+ * линии на каждую стену стены закрашиваются прямо в буфере, поэтому время отрисовки зависит от
+ * размера окна, а не от размера лабиринта<br><br>
+ *
+ * Видимая часть задается масштабом (пикселей на ячейку) и левым верхним углом в ячейках, и
+ * рисуются только видимые ячейки. Если ячейка меньше пикселя, то пиксель закрашивается
+ * оттенком серого по доле стен на правой и нижней границе его блока ячеек (проверяется не
+ * больше {@link #MAX_SAMPLES} стен на границу)<br><br>
+ *
+ * Лабиринт, который еще генерируется, рисуется прямо из хранилища стен
+ * ({@link #setGenerating(WallStorage, int, int)}) и только в готовых строках: обернуть
+ * недописанное хранилище в {@link PerfectMaze} нельзя<br><br>
+ *
+ * Для пошаговой анимации ячейки можно отметить цветом ({@link #setMarks(byte[])}): отметки
+ * закрашивают ячейку под стенами, а при мелком масштабе окрашивают пиксель блока<br><br>
+ *
+ * Не потокобезопасный: используется из потока JavaFX
+ */
+public class MazeRenderer {
+  public static final double MAX_SCALE = 64;
+  public static final int MAX_SAMPLES = 8;
+
+  static final int WHITE = 0xFFFFFFFF;
+  static final int BLACK = 0xFF000000;
+  static final int RED = 0xFFFF0000;
+
+  public static final byte MARK_NONE = 0;
+  public static final byte MARK_JOINED = 1; // объединенные ячейки строки при генерации
+  public static final byte MARK_VISITED = 2; // ячейка, в которую зашел поиск пути
+  public static final byte MARK_BACKTRACKED = 3; // ячейка, из которой поиск вернулся
+  // цвета отметок по номеру отметки
+  private static final int[] MARK_COLORS = {WHITE, 0xFFB8E6B8, 0xFFB3D9FF, 0xFFDDDDDD};
+
+  private final int width;
+  private final int height;
+  private final int[] pixels;
+  private WritableImage image; // создается при первом обращении, нужен запущенный JavaFX
+
+  private PerfectMaze maze; // null, пока лабиринт генерируется
+  private LongToIntFunction cellWalls; // код стен по индексу ячейки или null, если рисовать нечего
+  private int rows;
+  private int columns;
+  private int[] path; // индексы ячеек пути
+  private byte[] marks; // отметки ячеек или null
+  private int readyRows; // сколько первых строк лабиринта рисовать
+  private double scale = 1; // пикселей на ячейку
+  private double originX; // левый верхний угол видимой части в ячейках
+  private double originY;
+  private long lastRenderNanos;
+
+  public MazeRenderer(int width, int height) {
+    this.width = width;
+    this.height = height;
+    pixels = new int[width * height];
+  }
+
+  /**
+   * Новый лабиринт: путь сбрасывается, а лабиринт целиком вписывается в окно
+   */
+  public void setMaze(PerfectMaze maze) {
+    this.maze = maze;
+    if (maze == null) {
+      show(null, 0, 0);
+    } else {
+      show(maze::getWalls, maze.getRows(), maze.getColumns());
+    }
+    readyRows = rows;
+  }
+
+  /**
+   * Лабиринт, который генерируется другим потоком прямо в <code>walls</code>. Сначала не
+   * рисуется ни одна строка, готовые строки сообщаются через {@link #setReadyRows(int)}, а
+   * {@link #getMaze()} до следующего {@link #setMaze(PerfectMaze)} возвращает null
+   */
+  public void setGenerating(WallStorage walls, int rows, int columns) {
+    maze = null;
+    show(walls::getWalls, rows, columns);
+    readyRows = 0;
+  }
+
+  /**
+   * Рисовать только первые <code>readyRows</code> строк. Нужно, чтобы показывать лабиринт по
+   * мере генерации: строки ниже еще не записаны и могут изменяться другим потоком, поэтому
+   * они не читаются. После {@link #setMaze(PerfectMaze)} рисуются все строки
+   */
+  public void setReadyRows(int readyRows) {
+    this.readyRows = Math.max(0, Math.min(rows, readyRows));
+  }
+
+  /**
+   * Отметки ячеек (<code>MARK_*</code>) по индексу <code>row * columns + column</code> или null,
+   * чтобы их убрать. Массив не копируется: изменения видны при следующей отрисовке. Отметки
+   * рисуются и в строках, которые еще не готовы ({@link #setReadyRows(int)}). После
+   * {@link #setMaze(PerfectMaze)} отметок нет
+   */
+  public void setMarks(byte[] marks) {
+    this.marks = cellWalls == null ? null : marks;
+  }
+
+  /**
+   * Показанный лабиринт или null, если его нет или он еще генерируется
+   */
+  public PerfectMaze getMaze() {
+    return maze;
+  }
+
+  /**
+   * Генерируется ли показанный лабиринт (см. {@link #setGenerating(WallStorage, int, int)})
+   */
+  public boolean isGenerating() {
+    return maze == null && cellWalls != null;
+  }
+
+  public int getRows() {
+    return rows;
+  }
+
+  public int getColumns() {
+    return columns;
+  }
+
+  /**
+   * Путь поверх лабиринта или null, чтобы его убрать
+   */
+  public void setPath(List<Point> path) {
+    if (path == null || cellWalls == null) {
+      this.path = null;
+      return;
+    }
+    this.path = new int[path.size()];
+    for (int i = 0; i < this.path.length; i++) {
+      Point point = path.get(i);
+      this.path[i] = point.y * columns + point.x;
+    }
+  }
+
+  /**
+   * Масштаб, при котором лабиринт целиком помещается в окно
+   */
+  public void fit() {
+    if (cellWalls == null)
+      return;
+    scale = fitScale();
+    clampOrigin();
+  }
+
+  /**
+   * Изменение масштаба в <code>factor</code> раз так, что точка <code>(x, y)</code> окна
+   * остается над той же точкой лабиринта. Масштаб не бывает меньше того, при котором лабиринт
+   * целиком в окне, и больше {@link #MAX_SCALE}
+   */
+  public void zoom(double factor, double x, double y) {
+    if (cellWalls == null)
+      return;
+    double cellX = originX + x / scale;
+    double cellY = originY + y / scale;
+    scale = Math.max(fitScale(), Math.min(MAX_SCALE, scale * factor));
+    originX = cellX - x / scale;
+    originY = cellY - y / scale;
+    clampOrigin();
+  }
+
+  /**
+   * Сдвиг видимой части на <code>(dx, dy)</code> пикселей окна
+   */
+  public void pan(double dx, double dy) {
+    if (cellWalls == null)
+      return;
+    originX -= dx / scale;
+    originY -= dy / scale;
+    clampOrigin();
+  }
+
+  public double getScale() {
+    return scale;
+  }
+
+  /**
+   * Время последней отрисовки в буфер в наносекундах
+   */
+  public long getLastRenderNanos() {
+    return lastRenderNanos;
+  }
+
+  /**
+   * Отрисовка в буфер пикселей. Буфер переиспользуется между вызовами
+   * @return пиксели ARGB построчно, <code>width * height</code>
+   */
+  public int[] render() {
+    long start = System.nanoTime();
+    Arrays.fill(pixels, WHITE);
+    if (cellWalls != null && (readyRows > 0 || marks != null)) {
+      if (scale >= 1) {
+        drawCells();
+      } else {
+        drawBlocks();
+      }
+      if (path != null)
+        drawPath();
+    }
+    lastRenderNanos = System.nanoTime() - start;
+    return pixels;
+  }
+
+  /**
+   * Отрисовка и перенос буфера в изображение для показа на экране
+   */
+  public WritableImage renderImage() {
+    render();
+    if (image == null)
+      image = new WritableImage(width, height);
+    WritablePixelFormat<IntBuffer> format = PixelFormat.getIntArgbInstance();
+    image.getPixelWriter().setPixels(0, 0, width, height, format, pixels, 0, width);
+    return image;
+  }
+
+  // Новые стены: путь и отметки сбрасываются, а лабиринт целиком вписывается в окно
+  private void show(LongToIntFunction cellWalls, int rows, int columns) {
+    this.cellWalls = cellWalls;
+    this.rows = rows;
+    this.columns = columns;
+    path = null;
+    marks = null;
+    fit();
+  }
+
+  private int walls(int row, int column) {
+    return cellWalls.applyAsInt((long) row * columns + column);
+  }
+
+  private double fitScale() {
+    return Math.min((double) width / columns, (double) height / rows);
+  }
+
+  // Лабиринт меньше окна - по центру, больше - не дальше своих краев
+  private void clampOrigin() {
+    originX = clamp(originX, columns, width / scale);
+    originY = clamp(originY, rows, height / scale);
+  }
+
+  private static double clamp(double origin, int cells, double visible) {
+    if (cells <= visible)
+      return (cells - visible) / 2;
+    return Math.max(0, Math.min(cells - visible, origin));
+  }
+
+  // Координата пикселя левого (верхнего) края ячейки с номером cell
+  private static int edge(int cell, double origin, double scale) {
+    return (int) Math.floor((cell - origin) * scale);
+  }
+
+  // Крупный масштаб: каждая видимая ячейка рисует свою отметку, правую и нижнюю стену
+  private void drawCells() {
+    int rows = marks != null ? this.rows : readyRows;
+    int firstColumn = Math.max(0, (int) Math.floor(originX));
+    int lastColumn = Math.min(columns - 1, (int) Math.floor(originX + width / scale));
+    int firstRow = Math.max(0, (int) Math.floor(originY));
+    int lastRow = Math.min(rows - 1, (int) Math.floor(originY + height / scale));
+    int thickness = scale >= 8 ? 2 : 1;
+
+    if (firstRow > lastRow)
+      return;
+
+    int[] xs = new int[lastColumn - firstColumn + 2];
+    for (int i = 0; i < xs.length; i++) {
+      xs[i] = edge(firstColumn + i, originX, scale);
+    }
+    int[] ys = new int[lastRow - firstRow + 2];
+    for (int i = 0; i < ys.length; i++) {
+      ys[i] = edge(firstRow + i, originY, scale);
+    }
+
+    for (int i = 0; i < ys.length - 1; i++) {
+      int top = ys[i], bottom = ys[i + 1];
+      int row = firstRow + i;
+      for (int j = 0; j < xs.length - 1; j++) {
+        int left = xs[j], right = xs[j + 1];
+        if (marks != null) {
+          int mark = marks[row * columns + firstColumn + j];
+          if (mark != MARK_NONE)
+            fillRect(left, top, right - left, bottom - top, MARK_COLORS[mark]);
+        }
+        if (row >= readyRows)
+          continue;
+        int walls = walls(row, firstColumn + j);
+        if (walls == Constants.EMPTY)
+          continue;
+        if ((walls & Constants.RIGHT_WALL) != 0)
+          fillRect(right - thickness, top, thickness, bottom - top, BLACK);
+        if ((walls & Constants.BOTTOM_WALL) != 0)
+          fillRect(left, bottom - thickness, right - left, thickness, BLACK);
+      }
+    }
+
+    // внешние верхняя и левая стены
+    int readyEnd = Math.min(readyRows, lastRow + 1) - firstRow;
+    if (readyEnd <= 0)
+      return;
+    int left = xs[0], right = xs[xs.length - 1], top = ys[0], bottom = ys[readyEnd];
+    if (firstRow == 0)
+      fillRect(left, top, right - left, thickness, BLACK);
+    if (firstColumn == 0)
+      fillRect(left, top, thickness, bottom - top, BLACK);
+  }
+
+  // Мелкий масштаб: пиксель - блок ячеек, оттенок - доля стен на правой и нижней границе блока,
+  // цвет - отметка левой верхней ячейки блока
+  private void drawBlocks() {
+    int rows = marks != null ? this.rows : readyRows;
+    double cellsPerPixel = 1 / scale;
+    int[] firstColumns = new int[width + 1];
+    for (int x = 0; x <= width; x++) {
+      firstColumns[x] = (int) Math.floor(originX + x * cellsPerPixel);
+    }
+
+    for (int y = 0; y < height; y++) {
+      int firstRow = (int) Math.floor(originY + y * cellsPerPixel);
+      int endRow = Math.min(rows, (int) Math.floor(originY + (y + 1) * cellsPerPixel));
+      if (firstRow < 0 || firstRow >= rows)
+        continue;
+      endRow = Math.max(endRow, firstRow + 1);
+      int rowStep = Math.max(1, (endRow - firstRow) / MAX_SAMPLES);
+
+      for (int x = 0, offset = y * width; x < width; x++) {
+        int firstColumn = firstColumns[x];
+        if (firstColumn < 0 || firstColumn >= columns)
+          continue;
+        int endColumn = Math.max(Math.min(columns, firstColumns[x + 1]), firstColumn + 1);
+        int columnStep = Math.max(1, (endColumn - firstColumn) / MAX_SAMPLES);
+
+        int color = marks == null ? WHITE : MARK_COLORS[marks[firstRow * columns + firstColumn]];
+        if (firstRow >= readyRows) {
+          pixels[offset + x] = color;
+          continue;
+        }
+        int wallRows = Math.min(endRow, readyRows);
+        int walls = 0, samples = 0;
+        for (int row = firstRow; row < wallRows; row += rowStep, samples++) {
+          if ((walls(row, endColumn - 1) & Constants.RIGHT_WALL) != 0)
+            walls++;
+        }
+        for (int column = firstColumn; column < endColumn; column += columnStep, samples++) {
+          if ((walls(wallRows - 1, column) & Constants.BOTTOM_WALL) != 0)
+            walls++;
+        }
+        pixels[offset + x] = shade(color, 255 - 255 * walls / samples);
+      }
+    }
+  }
+
+  // Затемнение цвета: shade от 0 (черный) до 255 (исходный цвет)
+  private static int shade(int color, int shade) {
+    int red = (color >> 16 & 0xFF) * shade / 255;
+    int green = (color >> 8 & 0xFF) * shade / 255;
+    int blue = (color & 0xFF) * shade / 255;
+    return 0xFF000000 | red << 16 | green << 8 | blue;
+  }
+
+  // Путь: отрезки между центрами соседних ячеек, каждый по горизонтали или по вертикали
+  private void drawPath() {
+    int thickness = scale >= 8 ? 2 : 1;
+    int previousX = 0, previousY = 0;
+    for (int i = 0; i < path.length; i++) {
+      int x = (int) Math.floor((path[i] % columns + 0.5 - originX) * scale);
+      int y = (int) Math.floor((path[i] / columns + 0.5 - originY) * scale);
+      if (i == 0) {
+        fillRect(x, y, thickness, thickness, RED);
+      } else {
+        int left = Math.min(x, previousX), top = Math.min(y, previousY);
+        fillRect(left, top, Math.abs(x - previousX) + thickness,
+            Math.abs(y - previousY) + thickness, RED);
+      }
+      previousX = x;
+      previousY = y;
+    }
+  }
+
+  // Закраска прямоугольника с обрезкой по границам окна
+  private void fillRect(int x, int y, int w, int h, int color) {
+    int left = Math.max(0, x), right = Math.min(width, x + w);
+    int top = Math.max(0, y), bottom = Math.min(height, y + h);
+    if (left >= right)
+      return;
+    for (int row = top; row < bottom; row++) {
+      Arrays.fill(pixels, row * width + left, row * width + right, color);
+    }
+  }
+}
@@ -0,0 +1,218 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import domain.algorithm.PerfectMazeGenerator;
+import domain.model.PerfectMaze;
+import domain.model.StorageBackend;
+import domain.util.BinaryMazeFormat;
+import domain.util.Converter;
+import domain.util.MazeArchive;
+import domain.util.MazeArchiveReader;
+import domain.util.MazeArchiveWriter;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ConverterTests {
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void textRoundTrip() throws IOException {
+    PerfectMaze maze = new PerfectMazeGenerator(20, 35).create();
+    Path file = tempDir.resolve("maze.txt");
+
+    Converter.saveMazeToFile(maze, file.toString());
+    assertSameWalls(maze, Converter.loadMazeFromFile(file.toFile()));
+  }
+
+  @Test
+  void binaryRoundTrip() throws IOException {
+    PerfectMaze maze = new PerfectMazeGenerator(333, 77, StorageBackend.LARGE).create();
+    Path file = tempDir.resolve("maze.mzb");
+
+    Converter.saveMaze(maze, file.toString());
+    assertSameWalls(maze, Converter.loadMaze(file.toFile()));
+  }
+
+  @Test
+  void binarySaveOverOwnFile() throws IOException {
+    PerfectMaze maze = new PerfectMazeGenerator(333, 77, StorageBackend.LARGE).create();
+    Path file = tempDir.resolve("maze.mzb");
+    Converter.saveMazeToBinaryFile(maze, file);
+
+    PerfectMaze loaded = Converter.loadMazeFromBinaryFile(file);
+    Converter.saveMazeToBinaryFile(loaded, file);
+    assertSameWalls(maze, loaded);
+    assertSameWalls(maze, Converter.loadMazeFromBinaryFile(file));
+    try (PerfectMaze offHeap = BinaryMazeFormat.loadOffHeap(file, true)) {
+      Converter.saveMazeToBinaryFile(offHeap, file);
+    }
+    assertSameWalls(maze, Converter.loadMazeFromBinaryFile(file));
+    try (Stream<Path> files = Files.list(tempDir)) {
+      assertEquals(1, files.count(), "temporary file is left behind");
+    }
+  }
+
+  @Test
+  void binaryChecksumMismatch() throws IOException {
+    PerfectMaze maze = new PerfectMazeGenerator(40, 40).create();
+    Path file = tempDir.resolve("maze.mzb");
+    Converter.saveMazeToBinaryFile(maze, file);
+
+    try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+      raf.seek(40);
+      int b = raf.read();
+      raf.seek(40);
+      raf.write(b ^ 1);
+    }
+    IOException e =
+        assertThrows(IOException.class, () -> Converter.loadMazeFromBinaryFile(file));
+    assertEquals("Checksum mismatch", e.getMessage());
+  }
+
+  @Test
+  void binaryOffHeapRoundTrip() throws IOException {
+    Path file = tempDir.resolve("maze.mzb");
+    try (PerfectMaze maze =
+             new PerfectMazeGenerator(333, 77, StorageBackend.OFF_HEAP).create()) {
+      Converter.saveMaze(maze, file.toString());
+      PerfectMaze loaded = BinaryMazeFormat.loadOffHeap(file, true);
+      assertSameWalls(maze, loaded);
+      loaded.close();
+      assertThrows(IllegalStateException.class, () -> loaded.getWalls(0, 0));
+    }
+
+    try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+      raf.seek(40);
+      int b = raf.read();
+      raf.seek(40);
+      raf.write(b ^ 1);
+    }
+    IOException e =
+        assertThrows(IOException.class, () -> BinaryMazeFormat.loadOffHeap(file, true));
+    assertEquals("Checksum mismatch", e.getMessage());
+  }
+
+  @Test
+  void archiveRoundTrip() throws IOException {
+    PerfectMaze maze = new PerfectMazeGenerator(301, 45, StorageBackend.LARGE).create();
+    Path file = tempDir.resolve("maze.mza");
+
+    Converter.saveMaze(maze, file.toString());
+    assertSameWalls(maze, Converter.loadMaze(file.toFile()));
+  }
+
+  @Test
+  void archiveStreamingAndPartialRead() throws IOException {
+    int rows = 250, columns = 37;
+    PerfectMaze maze = new PerfectMazeGenerator(rows, columns, StorageBackend.LARGE, 7).create();
+    Path file = tempDir.resolve("maze.mza");
+    try (MazeArchiveWriter writer = new MazeArchiveWriter(file, rows, columns, 16)) {
+      new PerfectMazeGenerator(rows, columns, StorageBackend.LARGE, 7).generate(writer);
+    }
+
+    try (MazeArchiveReader reader = new MazeArchiveReader(file)) {
+      assertEquals(16, reader.getBlockCount());
+      PerfectMaze region = reader.readRegion(100, 40);
+      for (int i = 0; i < region.getRows(); i++) {
+        for (int j = 0; j < columns; j++) {
+          assertEquals(maze.getWalls(100 + i, j), region.getWalls(i, j));
+        }
+      }
+      assertSameWalls(maze, reader.readMaze());
+      assertThrows(ArrayIndexOutOfBoundsException.class, () -> reader.readRegion(240, 20));
+    }
+  }
+
+  @Test
+  void archiveErrors() throws IOException {
+    Path file = tempDir.resolve("maze.mza");
+    MazeArchiveWriter writer = new MazeArchiveWriter(file, 10, 10, 4);
+    writer.acceptRow(0, new int[10]);
+    assertThrows(IllegalStateException.class, () -> writer.acceptRow(2, new int[10]));
+    IOException e = assertThrows(IOException.class, writer::close);
+    assertEquals("Not enough rows in the matrix", e.getMessage());
+
+    Converter.saveMazeToArchive(new PerfectMazeGenerator(40, 40).create(), file);
+    try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+      raf.seek(40);
+      int b = raf.read();
+      raf.seek(40);
+      raf.write(b ^ 1);
+    }
+    assertThrows(IOException.class, () -> Converter.loadMazeFromArchive(file));
+
+    try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+      raf.setLength(raf.length() - 1);
+    }
+    e = assertThrows(IOException.class, () -> Converter.loadMazeFromArchive(file));
+    assertEquals("File is truncated", e.getMessage());
+
+    // индекс на 200 миллионов блоков не помещается в буфер: размер считается в long
+    int blockCount = 200_000_000;
+    assertThrows(ArrayIndexOutOfBoundsException.class,
+        () -> new MazeArchiveWriter(tempDir.resolve("huge.mza"), blockCount, 2, 1));
+    ByteBuffer huge = ByteBuffer.allocate(MazeArchive.HEADER_SIZE + MazeArchive.FOOTER_SIZE)
+        .order(ByteOrder.LITTLE_ENDIAN);
+    huge.putInt(MazeArchive.MAGIC).putInt(MazeArchive.VERSION).putInt(blockCount).putInt(2);
+    huge.putInt(1).putInt(0).putLong(0);
+    huge.putLong(MazeArchive.HEADER_SIZE - (long) blockCount * MazeArchive.INDEX_ENTRY_SIZE);
+    huge.putInt(blockCount).putInt(MazeArchive.MAGIC);
+    Files.write(file, huge.array());
+    e = assertThrows(IOException.class, () -> Converter.loadMazeFromArchive(file));
+    assertEquals("Wrong file format", e.getMessage());
+  }
+
+  @Test
+  void textParsesLineEndingsAndSpacing() throws IOException {
+    PerfectMaze maze = load("2 3\r\n 0  1\t1 \r\n1 0 1\r\n\r\n1 1 00\n0 1 2");
+
+    assertFalse(maze.hasRightWall(0, 0));
+    assertTrue(maze.hasRightWall(0, 1));
+    assertTrue(maze.hasRightWall(1, 2));
+    assertFalse(maze.hasBottomWall(0, 2));
+    assertTrue(maze.hasBottomWall(1, 2));
+  }
+
+  @Test
+  void textMalformedMessages() {
+    assertLoadError(IOException.class, "Wrong size format", "");
+    assertLoadError(IOException.class, "Wrong size format", "2 2 2\n");
+    assertLoadError(IOException.class, "Not enough rows in the matrix", "2 2\n0 1\n");
+    assertLoadError(IOException.class, "Not enough rows in the matrix",
+        "2 2\n0 1\n0 1\n\n0 1\n");
+    assertLoadError(IOException.class, "Incorrect number of columns in a row",
+        "2 2\n0 1 x\n0 1\n\n1 1\n1 1\n");
+    assertLoadError(NumberFormatException.class, "For input string: \"x\"",
+        "2 2\n0 x\n0 1\n\n1 1\n1 1\n");
+    assertLoadError(NumberFormatException.class, "For input string: \"a\"", "a 2\n");
+  }
+
+  private PerfectMaze load(String text) throws IOException {
+    return Converter.loadMazeFromStream(
+        new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private void assertLoadError(Class<? extends Exception> type, String message, String text) {
+    Exception e = assertThrows(type, () -> load(text));
+    assertEquals(message, e.getMessage());
+  }
+
+  private void assertSameWalls(PerfectMaze expected, PerfectMaze actual) {
+    assertEquals(expected.getRows(), actual.getRows());
+    assertEquals(expected.getColumns(), actual.getColumns());
+    for (int i = 0; i < expected.getRows(); i++) {
+      for (int j = 0; j < expected.getColumns(); j++) {
+        assertEquals(expected.getWalls(i, j), actual.getWalls(i, j));
+      }
+    }
+  }
+}
@@ -0,0 +1,88 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import domain.algorithm.MazeAnalytics;
+import domain.algorithm.MazePathIndex;
+import domain.algorithm.PerfectMazeGenerator;
+import domain.model.PerfectMaze;
+import domain.model.StorageBackend;
+import org.junit.jupiter.api.Test;
+
+public class MazeAnalyticsTests {
+  @Test
+  void matchesAllPairsDistances() {
+    for (int seed = 0; seed < 5; seed++) {
+      PerfectMaze maze = new PerfectMazeGenerator(17, 23, StorageBackend.STANDARD, seed).create();
+      MazeAnalytics analytics = MazeAnalytics.analyze(maze);
+      MazePathIndex index = new MazePathIndex(maze);
+      int cells = (int) maze.getCells();
+
+      int diameter = 0, radius = Integer.MAX_VALUE;
+      for (int from = 0; from < cells; from++) {
+        int eccentricity = 0;
+        for (int to = 0; to < cells; to++) {
+          eccentricity = Math.max(eccentricity, index.distance(from, to));
+        }
+        assertEquals(eccentricity, analytics.getEccentricity(from));
+        diameter = Math.max(diameter, eccentricity);
+        radius = Math.min(radius, eccentricity);
+      }
+      assertEquals(diameter, analytics.getDiameter());
+      assertEquals(radius, analytics.getRadius());
+      assertEquals(radius, analytics.getEccentricity(analytics.getCenter()));
+      assertEquals(diameter,
+          index.distance(analytics.getDiameterStart(), analytics.getDiameterEnd()));
+    }
+  }
+
+  @Test
+  void degreesOfSmallMaze() {
+    // 0 1 2
+    // 3 4 5: коридор 0-1-2, спуски 1-4 и 4-3, 4-5
+    int[][] right = {{0, 0, 1}, {0, 0, 1}};
+    int[][] bottom = {{1, 0, 1}, {1, 1, 1}};
+    MazeAnalytics analytics = MazeAnalytics.analyze(new PerfectMaze(2, 3, right, bottom));
+
+    assertArrayEquals(new int[] {0, 4, 0, 2, 0}, analytics.getDegreeHistogram());
+    assertEquals(4, analytics.getDeadEnds());
+    assertEquals(3.0, analytics.getBranchingFactor());
+    assertEquals(3, analytics.getDiameter());
+    assertEquals(2, analytics.getRadius());
+    assertArrayEquals(new int[] {3, 2, 3, 3, 2, 3}, analytics.getEccentricities());
+  }
+
+  @Test
+  void parallelMatchesPathIndex() {
+    PerfectMaze maze = new PerfectMazeGenerator(400, 300, StorageBackend.LARGE, 9).create();
+    assertTrue(maze.getCells() >= MazeAnalytics.PARALLEL_CELLS);
+    MazeAnalytics analytics = MazeAnalytics.analyze(maze);
+    MazePathIndex index = new MazePathIndex(maze);
+
+    int start = analytics.getDiameterStart(), end = analytics.getDiameterEnd();
+    assertEquals(analytics.getDiameter(), index.distance(start, end));
+    int[] histogram = analytics.getDegreeHistogram();
+    assertEquals(maze.getCells(), histogram[1] + histogram[2] + histogram[3] + histogram[4]);
+    for (int cell = 0; cell < maze.getCells(); cell += 997) {
+      assertEquals(Math.max(index.distance(cell, start), index.distance(cell, end)),
+          analytics.getEccentricity(cell));
+    }
+
+    MazeAnalytics sequential = MazeAnalytics.analyze(maze, false);
+    assertArrayEquals(analytics.getEccentricities(), sequential.getEccentricities());
+    assertArrayEquals(histogram, sequential.getDegreeHistogram());
+  }
+
+  @Test
+  void rejectsImperfectMazes() {
+    int[][] open = {{0, 1}, {0, 1}};
+    int[][] openBottom = {{0, 0}, {1, 1}};
+    // цикл из четырех ячеек
+    assertThrows(IllegalArgumentException.class,
+        () -> MazeAnalytics.analyze(new PerfectMaze(2, 2, open, openBottom)));
+
+    // проходов ровно cells - 1, но цикл 0-1-4-3 отделен от коридора 2-5
+    int[][] right = {{0, 1, 1}, {0, 1, 1}};
+    int[][] bottom = {{0, 0, 0}, {1, 1, 1}};
+    assertThrows(IllegalArgumentException.class,
+        () -> MazeAnalytics.analyze(new PerfectMaze(2, 3, right, bottom)));
+  }
+}
@@ -0,0 +1,118 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import domain.algorithm.PerfectMazeDFS;
+import domain.algorithm.PerfectMazeGenerator;
+import domain.model.PerfectMaze;
+import domain.model.StorageBackend;
+import domain.structures.PackedWalls;
+import java.awt.*;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import view.MazeRenderer;
+
+public class MazeRendererTests {
+  private static final int WHITE = 0xFFFFFFFF;
+  private static final int BLACK = 0xFF000000;
+  private static final int RED = 0xFFFF0000;
+
+  @Test
+  void wallsAtCellEdges() {
+    // 2 x 2: правая стена только у ячейки (0, 0), нижней стены у (0, 1) нет
+    int[][] right = {{1, 1}, {0, 1}};
+    int[][] bottom = {{1, 0}, {1, 1}};
+    MazeRenderer renderer = new MazeRenderer(100, 100);
+    renderer.setMaze(new PerfectMaze(2, 2, right, bottom));
+    assertEquals(50, renderer.getScale());
+    int[] pixels = renderer.render();
+
+    assertEquals(BLACK, pixels[25 * 100 + 49]); // правая стена (0, 0)
+    assertEquals(WHITE, pixels[75 * 100 + 49]); // прохода между (1, 0) и (1, 1)
+    assertEquals(BLACK, pixels[49 * 100 + 25]); // нижняя стена (0, 0)
+    assertEquals(WHITE, pixels[49 * 100 + 75]); // проход вниз из (0, 1)
+    assertEquals(BLACK, pixels[0 * 100 + 75]); // внешняя верхняя стена
+    assertEquals(BLACK, pixels[75 * 100]); // внешняя левая стена
+    assertEquals(WHITE, pixels[25 * 100 + 25]); // середина ячейки
+  }
+
+  @Test
+  void zoomKeepsPointAndPanIsClamped() {
+    PerfectMaze maze = new PerfectMazeGenerator(2000, 2000, StorageBackend.LARGE, 1).create();
+    MazeRenderer renderer = new MazeRenderer(500, 500);
+    renderer.setMaze(maze);
+    assertEquals(0.25, renderer.getScale());
+    renderer.zoom(0.5, 250, 250);
+    assertEquals(0.25, renderer.getScale()); // меньше, чем весь лабиринт, не бывает
+
+    for (int i = 0; i < 40; i++) {
+      renderer.zoom(1.25, 0, 0);
+    }
+    assertEquals(MazeRenderer.MAX_SCALE, renderer.getScale());
+    renderer.pan(1e6, 1e6); // дальше левого верхнего угла не сдвигается
+    int[] pixels = renderer.render();
+    assertEquals(BLACK, pixels[0]);
+    assertEquals(maze.hasRightWall(0, 0), pixels[10 * 500 + 63] == BLACK);
+    assertEquals(maze.hasBottomWall(0, 0), pixels[63 * 500 + 10] == BLACK);
+  }
+
+  @Test
+  void pathIsDrawnOverMaze() {
+    PerfectMaze maze = new PerfectMazeGenerator(20, 20).create();
+    List<Point> path = new PerfectMazeDFS(maze).findPath(new Point(0, 0), new Point(19, 19));
+    MazeRenderer renderer = new MazeRenderer(200, 200);
+    renderer.setMaze(maze);
+    renderer.setPath(path);
+    int[] pixels = renderer.render();
+
+    for (Point point : path) {
+      assertEquals(RED, pixels[(point.y * 10 + 5) * 200 + point.x * 10 + 5]);
+    }
+  }
+
+  @Test
+  void marksAreDrawnUnderWalls() {
+    // 2 x 2 с отметками, готова только верхняя строка
+    int[][] right = {{1, 1}, {0, 1}};
+    int[][] bottom = {{1, 0}, {1, 1}};
+    MazeRenderer renderer = new MazeRenderer(100, 100);
+    renderer.setMaze(new PerfectMaze(2, 2, right, bottom));
+    renderer.setReadyRows(1);
+    byte[] marks = {MazeRenderer.MARK_VISITED, MazeRenderer.MARK_NONE,
+        MazeRenderer.MARK_JOINED, MazeRenderer.MARK_JOINED};
+    renderer.setMarks(marks);
+    int[] pixels = renderer.render();
+
+    int visited = pixels[25 * 100 + 25];
+    assertNotEquals(WHITE, visited);
+    assertEquals(BLACK, pixels[25 * 100 + 49]); // стена поверх отметки
+    assertEquals(WHITE, pixels[25 * 100 + 75]);
+    int joined = pixels[75 * 100 + 25];
+    assertNotEquals(WHITE, joined);
+    assertNotEquals(visited, joined);
+    assertEquals(joined, pixels[99 * 100 + 75]); // стены неготовой строки не рисуются
+
+    marks[1] = MazeRenderer.MARK_VISITED; // массив не копируется
+    assertEquals(visited, renderer.render()[25 * 100 + 75]);
+  }
+
+  @Test
+  void generatingWallsAreDrawnByReadyRows() {
+    // 2 x 2 прямо в хранилище: правые стены у обеих ячеек левого столбца
+    PackedWalls walls = new PackedWalls(4);
+    walls.setRightWall(0, true);
+    walls.setRightWall(2, true);
+    MazeRenderer renderer = new MazeRenderer(100, 100);
+    renderer.setGenerating(walls, 2, 2);
+    assertNull(renderer.getMaze());
+    assertTrue(renderer.isGenerating());
+    assertEquals(WHITE, renderer.render()[25 * 100 + 49]); // готовых строк еще нет
+
+    renderer.setReadyRows(1);
+    int[] pixels = renderer.render();
+    assertEquals(BLACK, pixels[25 * 100 + 49]);
+    assertEquals(WHITE, pixels[75 * 100 + 49]); // строка 1 не готова и не читается
+
+    renderer.setMaze(new PerfectMaze(2, 2, walls));
+    assertFalse(renderer.isGenerating());
+    assertEquals(BLACK, renderer.render()[75 * 100 + 49]);
+  }
+}
@@ -0,0 +1,138 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import domain.algorithm.PerfectMazeDFS;
+import domain.model.PerfectMaze;
+import domain.util.Converter;
+import java.awt.*;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.MazeServer;
+
+public class MazeServerTests {
+  private MazeServer server;
+  private HttpClient client;
+  private String base;
+
+  @BeforeEach
+  void startServer() throws IOException {
+    server = new MazeServer(0, MazeServer.DEFAULT_MAX_CELLS);
+    server.start();
+    assertTrue(server.getAddress().getAddress().isLoopbackAddress());
+    base = "http://127.0.0.1:" + server.getAddress().getPort() + "/mazes";
+    client = HttpClient.newHttpClient();
+  }
+
+  @AfterEach
+  void stopServer() {
+    client.close();
+    server.close();
+  }
+
+  @Test
+  void generateFetchAndSolve() throws Exception {
+    HttpResponse<String> created = send("POST", "?rows=40&columns=60&seed=7", "");
+    assertEquals(201, created.statusCode());
+    String id = created.body();
+    assertEquals("/mazes/" + id, created.headers().firstValue("Location").orElseThrow());
+
+    HttpResponse<String> fetched = send("GET", "/" + id, null);
+    assertEquals(200, fetched.statusCode());
+    PerfectMaze maze = Converter.loadMazeFromStream(
+        new ByteArrayInputStream(fetched.body().getBytes(StandardCharsets.UTF_8)));
+    assertEquals(40, maze.getRows());
+    assertEquals(60, maze.getColumns());
+
+    HttpResponse<String> path = send("GET", "/" + id + "/path?from=0,0&to=59,39", null);
+    assertEquals(200, path.statusCode());
+    assertEquals(new PerfectMazeDFS(maze).findPath(new Point(0, 0), new Point(59, 39)),
+        parsePath(path.body()));
+
+    assertEquals(id + " 40 60\n", send("GET", "", null).body());
+    assertEquals(204, send("DELETE", "/" + id, null).statusCode());
+    assertEquals(404, send("GET", "/" + id, null).statusCode());
+  }
+
+  @Test
+  void loadFromBody() throws Exception {
+    String text = "2 2\n0 1\n0 1\n\n1 0\n1 1\n";
+    HttpResponse<String> created = send("POST", "", text);
+    assertEquals(201, created.statusCode());
+    assertEquals(text, send("GET", "/" + created.body(), null).body());
+    assertEquals("0 0\n1 0\n1 1\n",
+        send("GET", "/" + created.body() + "/path?from=0,0&to=1,1", null).body());
+  }
+
+  @Test
+  void badRequests() throws Exception {
+    assertEquals(400, send("POST", "?rows=1&columns=10", "").statusCode());
+    assertEquals(400, send("POST", "?rows=10", "").statusCode());
+    assertEquals(400, send("POST", "?rows=5000&columns=5000", "").statusCode());
+    assertEquals(400, send("POST", "", "2 2\n0 1\n").statusCode());
+    assertEquals(400, send("POST", "", "40000 40000\n").statusCode());
+    assertEquals(404, send("GET", "/42", null).statusCode());
+    assertEquals(405, send("PUT", "", "").statusCode());
+
+    String id = send("POST", "?rows=10&columns=10", "").body();
+    assertEquals(400, send("GET", "/" + id + "/path?from=0,0&to=10,0", null).statusCode());
+    assertEquals(400, send("GET", "/" + id + "/path?from=0,0", null).statusCode());
+    assertEquals(400, send("GET", "/" + id + "/path?from=00&to=1,1", null).statusCode());
+  }
+
+  @Test
+  void concurrentSolvesOnSharedMaze() throws Exception {
+    String id = send("POST", "?rows=200&columns=300&seed=3", "").body();
+    PerfectMaze maze = Converter.loadMazeFromStream(new ByteArrayInputStream(
+        send("GET", "/" + id, null).body().getBytes(StandardCharsets.UTF_8)));
+    PerfectMazeDFS solver = new PerfectMazeDFS(maze);
+
+    SplittableRandom random = new SplittableRandom(11);
+    List<Point[]> queries = new ArrayList<>();
+    List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      Point start = new Point(random.nextInt(300), random.nextInt(200));
+      Point end = new Point(random.nextInt(300), random.nextInt(200));
+      queries.add(new Point[] {start, end});
+      String query = "/" + id + "/path?from=" + start.x + "," + start.y + "&to=" + end.x + ","
+          + end.y;
+      responses.add(client.sendAsync(HttpRequest.newBuilder(URI.create(base + query)).build(),
+          HttpResponse.BodyHandlers.ofString()));
+    }
+
+    for (int i = 0; i < queries.size(); i++) {
+      HttpResponse<String> response = responses.get(i).join();
+      assertEquals(200, response.statusCode());
+      assertEquals(solver.findPath(queries.get(i)[0], queries.get(i)[1]),
+          parsePath(response.body()));
+    }
+  }
+
+  private HttpResponse<String> send(String method, String path, String body) throws Exception {
+    HttpRequest.BodyPublisher publisher = body == null
+        ? HttpRequest.BodyPublishers.noBody()
+        : HttpRequest.BodyPublishers.ofString(body);
+    HttpRequest request =
+        HttpRequest.newBuilder(URI.create(base + path)).method(method, publisher).build();
+    return client.send(request, HttpResponse.BodyHandlers.ofString());
+  }
+
+  private static List<Point> parsePath(String body) {
+    List<Point> path = new ArrayList<>();
+    for (String line : body.split("\n")) {
+      String[] xy = line.split(" ");
+      path.add(new Point(Integer.parseInt(xy[0]), Integer.parseInt(xy[1])));
+    }
+    return path;
+  }
+}
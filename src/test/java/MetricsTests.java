@@ -0,0 +1,94 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import domain.algorithm.PerfectMazeDFS;
+import domain.algorithm.PerfectMazeGenerator;
+import domain.metrics.MazeMetrics;
+import domain.metrics.MazeMetricsRecorder;
+import domain.metrics.Metrics;
+import domain.model.PerfectMaze;
+import domain.util.Converter;
+import java.awt.*;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import javax.management.Attribute;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MetricsTests {
+  @TempDir
+  Path tempDir;
+
+  @AfterEach
+  void disableMetrics() {
+    Metrics.install(null);
+  }
+
+  @Test
+  void disabledByDefault() {
+    assertSame(MazeMetrics.NOOP, Metrics.get());
+    assertFalse(Metrics.get().isEnabled());
+  }
+
+  @Test
+  void recorderCountsGenerationSolvingAndIo() throws IOException, JMException {
+    MazeMetricsRecorder recorder = MazeMetricsRecorder.registerMBean();
+    ObjectName name = new ObjectName(MazeMetricsRecorder.OBJECT_NAME);
+    ManagementFactory.getPlatformMBeanServer().setAttribute(name, new Attribute("Enabled", true));
+    assertSame(recorder, Metrics.get());
+
+    PerfectMaze maze = new PerfectMazeGenerator(20, 30).create();
+    assertEquals(1, recorder.getGeneratedMazes());
+    assertEquals(600, recorder.getGeneratedCells());
+    // остовное дерево из 600 ячеек: каждое объединение множеств убирает одну стену
+    assertTrue(recorder.getUnions() > 0 && recorder.getUnions() <= 599);
+
+    List<Point> path = new PerfectMazeDFS(maze).findPath(new Point(0, 0), new Point(29, 19));
+    assertEquals(1, recorder.getPathSearches());
+    assertTrue(recorder.getVisitedCells() >= path.size());
+    assertTrue(recorder.getMaxStackDepth() >= path.size());
+
+    Path file = tempDir.resolve("maze.txt");
+    Converter.saveMaze(maze, file.toString());
+    Converter.loadMaze(file.toFile());
+    assertEquals(Files.size(file), recorder.getBytesWritten());
+    assertEquals(Files.size(file), recorder.getBytesRead());
+    assertEquals(600L,
+        ManagementFactory.getPlatformMBeanServer().getAttribute(name, "GeneratedCells"));
+
+    recorder.setEnabled(false);
+    new PerfectMazeGenerator(20, 30).create();
+    assertEquals(1, recorder.getGeneratedMazes());
+  }
+
+  @Test
+  void recorderEmitsJfrEvents() throws IOException {
+    MazeMetricsRecorder recorder = new MazeMetricsRecorder();
+    recorder.setEnabled(true);
+    Path dump = tempDir.resolve("metrics.jfr");
+
+    try (Recording recording = new Recording()) {
+      recording.enable("maze.Generation");
+      recording.enable("maze.PathSearch");
+      recording.start();
+      PerfectMaze maze = new PerfectMazeGenerator(10, 10).create();
+      new PerfectMazeDFS(maze).findPath(new Point(0, 0), new Point(9, 9));
+      recording.stop();
+      recording.dump(dump);
+    }
+
+    List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+    assertTrue(events.stream().anyMatch(
+        e -> e.getEventType().getName().equals("maze.Generation") && e.getInt("rows") == 10));
+    assertTrue(events.stream().anyMatch(
+        e -> e.getEventType().getName().equals("maze.PathSearch")));
+  }
+}
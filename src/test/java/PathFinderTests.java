@@ -1,11 +1,23 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import domain.algorithm.BatchPathSolver;
+import domain.algorithm.MazePathIndex;
+import domain.algorithm.MazeSolverPool;
+import domain.algorithm.PathFinder;
+import domain.algorithm.PathFinderStrategy;
 import domain.algorithm.PerfectMazeDFS;
 import domain.algorithm.PerfectMazeGenerator;
+import domain.algorithm.SolverListener;
 import domain.model.PerfectMaze;
+import domain.model.StorageBackend;
 import java.awt.*;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.Test;
 
 public class PathFinderTests {
@@ -30,6 +42,160 @@ public class PathFinderTests {
     }
   }
 
+  @Test
+  void pathLargeTest() {
+    PerfectMaze maze = new PerfectMazeGenerator(1000, 1500, StorageBackend.LARGE).create();
+    PerfectMazeDFS dfs = new PerfectMazeDFS(maze);
+    List<Point> path = dfs.findPath(new Point(0, 0), new Point(1499, 999));
+
+    assertNotNull(path);
+    assertEquals(new Point(0, 0), path.get(0));
+    assertEquals(new Point(1499, 999), path.get(path.size() - 1));
+    for (int i = 1; i < path.size(); i++) {
+      Point prev = path.get(i - 1), current = path.get(i);
+      assertEquals(1, Math.abs(prev.x - current.x) + Math.abs(prev.y - current.y));
+    }
+  }
+
+  @Test
+  void pathIndicesTest() {
+    int rows = 40, columns = 30;
+    PerfectMaze maze = new PerfectMazeGenerator(rows, columns).create();
+    PerfectMazeDFS dfs = new PerfectMazeDFS(maze);
+    Random random = new Random();
+
+    for (int i = 0; i < 1000; i++) {
+      int start = random.nextInt(rows * columns);
+      int end = random.nextInt(rows * columns);
+      int[] path = dfs.findPathIndices(start, end);
+
+      assertNotNull(path);
+      assertEquals(start, path[0]);
+      assertEquals(end, path[path.length - 1]);
+      assertEquals(dfs.toPoints(path),
+          dfs.findPath(new Point(start % columns, start / columns),
+              new Point(end % columns, end / columns)));
+    }
+  }
+
+  @Test
+  void solverPoolTest() {
+    int size = 50;
+    PerfectMaze maze = new PerfectMazeGenerator(size, size).create();
+    MazeSolverPool pool = new MazeSolverPool(maze);
+
+    IntStream.range(0, 5000).parallel().forEach(i -> {
+      int start = (i * 7919) % (size * size);
+      int end = (i * 104729) % (size * size);
+      int[] expected = new PerfectMazeDFS(maze).findPathIndices(start, end);
+      assertArrayEquals(expected, pool.findPathIndices(start, end));
+    });
+  }
+
+  @Test
+  void pathIndexTest() {
+    int rows = 60, columns = 80;
+    PerfectMaze maze = new PerfectMazeGenerator(rows, columns, StorageBackend.LARGE).create();
+    PerfectMazeDFS dfs = new PerfectMazeDFS(maze);
+    MazePathIndex index = new MazePathIndex(maze);
+    Random random = new Random();
+
+    for (int i = 0; i < 2000; i++) {
+      int start = random.nextInt(rows * columns);
+      int end = random.nextInt(rows * columns);
+      int[] expected = dfs.findPathIndices(start, end);
+
+      assertArrayEquals(expected, index.findPathIndices(start, end));
+      assertEquals(expected.length - 1, index.distance(start, end));
+    }
+  }
+
+  @Test
+  void batchPathTest() {
+    int rows = 45, columns = 50, queries = 500;
+    PerfectMaze maze = new PerfectMazeGenerator(rows, columns).create();
+    PerfectMazeDFS dfs = new PerfectMazeDFS(maze);
+    Random random = new Random();
+    int[] starts = new int[queries];
+    int[] ends = new int[queries];
+    for (int i = 0; i < queries; i++) {
+      starts[i] = random.nextInt(rows * columns);
+      ends[i] = i % 10 == 0 ? starts[i] : random.nextInt(rows * columns);
+    }
+
+    BatchPathSolver solver = new BatchPathSolver(maze);
+    int[][] paths = solver.findPathsIndices(starts, ends);
+    int[] distances = solver.distances(starts, ends);
+    for (int i = 0; i < queries; i++) {
+      int[] expected = dfs.findPathIndices(starts[i], ends[i]);
+      assertArrayEquals(expected, paths[i]);
+      assertEquals(expected.length - 1, distances[i]);
+    }
+  }
+
+  @Test
+  void strategiesFindSamePath() {
+    int rows = 70, columns = 55;
+    PerfectMaze maze = new PerfectMazeGenerator(rows, columns, StorageBackend.LARGE).create();
+    PerfectMazeDFS dfs = new PerfectMazeDFS(maze);
+    Random random = new Random();
+
+    for (PathFinderStrategy strategy : PathFinderStrategy.values()) {
+      PathFinder finder = strategy.create(maze);
+      for (int i = 0; i < 1000; i++) {
+        int start = random.nextInt(rows * columns);
+        int end = i % 20 == 0 ? start : random.nextInt(rows * columns);
+        assertArrayEquals(dfs.findPathIndices(start, end), finder.findPathIndices(start, end),
+            strategy.toString());
+      }
+      Point start = new Point(0, rows - 1), end = new Point(columns - 1, 0);
+      assertEquals(dfs.findPath(start, end), finder.findPath(start, end));
+    }
+  }
+
+  @Test
+  void listenerSeesSearch() {
+    int rows = 60, columns = 45;
+    PerfectMaze maze = new PerfectMazeGenerator(rows, columns, StorageBackend.LARGE).create();
+    Random random = new Random();
+    for (PathFinderStrategy strategy : PathFinderStrategy.values()) {
+      PathFinder finder = strategy.create(maze);
+      int[] visits = new int[rows * columns];
+      int[] backtracks = {0};
+      finder.setListener(new SolverListener() {
+        @Override
+        public void cellVisited(long cell) {
+          visits[(int) cell]++;
+        }
+
+        @Override
+        public void cellBacktracked(long cell) {
+          assertEquals(1, visits[(int) cell]);
+          backtracks[0]++;
+        }
+      });
+
+      int start = random.nextInt(rows * columns), end = random.nextInt(rows * columns);
+      int[] path = finder.findPathIndices(start, end);
+      int visited = 0;
+      for (int count : visits) {
+        assertTrue(count <= 1, strategy.toString());
+        visited += count;
+      }
+      for (int cell : path) {
+        assertEquals(1, visits[cell], strategy.toString());
+      }
+      if (strategy == PathFinderStrategy.DFS) // в стеке поиска в глубину остается путь
+        assertEquals(path.length, visited - backtracks[0]);
+
+      // без наблюдателя событий нет
+      finder.setListener(null);
+      Arrays.fill(visits, 0);
+      finder.findPathIndices(end, start);
+      assertEquals(0, Arrays.stream(visits).sum());
+    }
+  }
+
   private int randomCoordinate(Random random, int max) {
     return random.nextInt(0, max);
   }
@@ -1,11 +1,24 @@
 import static org.junit.jupiter.api.Assertions.*;
 
+import domain.algorithm.GenerationAlgorithm;
+import domain.algorithm.GenerationListener;
+import domain.algorithm.MazeGenerator;
+import domain.algorithm.PerfectMazeDFS;
 import domain.algorithm.PerfectMazeGenerator;
 import domain.constants.Constants;
 import domain.model.PerfectMaze;
+import domain.model.StorageBackend;
+import domain.structures.PackedWalls;
+import domain.structures.TiledWalls;
+import domain.util.TiledMazeFormat;
 import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Stack;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 public class PerfectMazeTests {
   @Test
@@ -18,6 +31,313 @@ public class PerfectMazeTests {
     }
   }
 
+  @Test
+  void packedWallsMatchMatrices() {
+    PerfectMaze maze = new PerfectMazeGenerator(30, 40).create();
+    int[][] rightWallsMatrix = maze.getRightWallsMatrix();
+    int[][] bottomWallsMatrix = maze.getBottomWallsMatrix();
+    PerfectMaze copy = new PerfectMaze(30, 40, rightWallsMatrix, bottomWallsMatrix);
+
+    for (int i = 0; i < 30; i++) {
+      for (int j = 0; j < 40; j++) {
+        assertEquals(rightWallsMatrix[i][j] == 1, maze.hasRightWall(i, j));
+        assertEquals(bottomWallsMatrix[i][j] == 1, maze.hasBottomWall(i, j));
+        assertEquals(maze.getWalls(i, j), copy.getWalls(i, j));
+      }
+    }
+  }
+
+  @Test
+  void matricesAreCopies() {
+    PerfectMaze maze = new PerfectMazeGenerator(10, 10).create();
+    int[][] rightWallsMatrix = maze.getRightWallsMatrix();
+    boolean wall = maze.hasRightWall(0, 0);
+    rightWallsMatrix[0][0] = wall ? 0 : 1;
+    maze.getBottomWallsMatrix()[0][0] = 1 - maze.getBottomWallsMatrix()[0][0];
+
+    assertEquals(wall, maze.hasRightWall(0, 0));
+    assertNotSame(rightWallsMatrix, maze.getRightWallsMatrix());
+    assertEquals(wall ? 1 : 0, maze.getRightWallsMatrix()[0][0]);
+  }
+
+  @Test
+  void generatorIsReusable() throws InterruptedException {
+    PerfectMazeGenerator generator = new PerfectMazeGenerator(40, 40, StorageBackend.LARGE, 5);
+    PerfectMaze first = generator.create();
+    PerfectMaze second = generator.create();
+    assertTrue(testConnectivity(second));
+    assertTrue(testNoCycles(second));
+
+    // первый лабиринт не меняется после следующих вызовов генератора
+    PerfectMaze expected = new PerfectMazeGenerator(40, 40, StorageBackend.LARGE, 5).create();
+    generator.createParallel();
+    Thread[] readers = new Thread[8];
+    boolean[] same = new boolean[readers.length];
+    for (int t = 0; t < readers.length; t++) {
+      int index = t;
+      readers[t] = Thread.ofVirtual().start(() -> same[index] = sameWalls(expected, first));
+    }
+    for (Thread reader : readers) {
+      reader.join();
+    }
+    for (boolean value : same) {
+      assertTrue(value);
+    }
+  }
+
+  @Test
+  void progressSeesWrittenRowsAndCanStop() {
+    PackedWalls walls = new PackedWalls(30 * 20);
+    PerfectMazeGenerator generator = new PerfectMazeGenerator(30, 20, StorageBackend.STANDARD, 4);
+    int[] nextRow = {0};
+    PerfectMaze maze = generator.create(walls, (row, mazeRow) -> {
+      assertEquals(nextRow[0]++, row);
+      for (int j = 0; j < 20; j++) {
+        assertEquals(mazeRow[j], walls.getWalls(row * 20L + j));
+      }
+    });
+    assertEquals(30, nextRow[0]);
+    assertTrue(sameWalls(new PerfectMazeGenerator(30, 20, StorageBackend.STANDARD, 4).create(),
+        maze));
+
+    PackedWalls stopped = new PackedWalls(30 * 20);
+    assertThrows(CancellationException.class, () -> generator.create(stopped, (row, mazeRow) -> {
+      if (row == 10)
+        throw new CancellationException();
+    }));
+    assertEquals(0, stopped.getWalls(11 * 20L));
+  }
+
+  @Test
+  void listenerSeesJoinsAndRows() {
+    int rows = 40, columns = 35;
+    int[] nextRow = {0};
+    boolean[] joined = new boolean[rows * columns];
+    PerfectMazeGenerator generator =
+        new PerfectMazeGenerator(rows, columns, StorageBackend.LARGE, 9);
+    generator.setListener(new GenerationListener() {
+      @Override
+      public void cellsJoined(int row, int column) {
+        assertEquals(nextRow[0], row);
+        assertFalse(joined[row * columns + column]);
+        joined[row * columns + column] = true;
+      }
+
+      @Override
+      public void rowCompleted(int row, int[] mazeRow) {
+        assertEquals(nextRow[0]++, row);
+      }
+    });
+    PerfectMaze maze = generator.create();
+    assertEquals(rows, nextRow[0]);
+    // каждое объединение - проход вправо, и других проходов вправо нет
+    for (int row = 0; row < rows; row++) {
+      for (int column = 0; column < columns - 1; column++) {
+        assertEquals(joined[row * columns + column], !maze.hasRightWall(row, column));
+      }
+    }
+    assertTrue(sameWalls(
+        new PerfectMazeGenerator(rows, columns, StorageBackend.LARGE, 9).create(), maze));
+  }
+
+  @Test
+  void isPerfectLarge() {
+    PerfectMazeGenerator mazeGenerator = new PerfectMazeGenerator(300, 700, StorageBackend.LARGE);
+    PerfectMaze maze = mazeGenerator.create();
+    assertTrue(testConnectivity(maze));
+    assertTrue(testNoCycles(maze));
+  }
+
+  @Test
+  void offHeapMazeIsPerfectAndFreed() {
+    int rows = 700, columns = 130;
+    PerfectMaze maze = new PerfectMazeGenerator(rows, columns, StorageBackend.OFF_HEAP, 5).create();
+    assertTrue(sameWalls(
+        new PerfectMazeGenerator(rows, columns, StorageBackend.LARGE, 5).create(), maze));
+    assertTrue(testConnectivity(maze));
+    assertTrue(testNoCycles(maze));
+    int[] path = new PerfectMazeDFS(maze).findPathIndices(0, rows * columns - 1);
+    assertEquals(rows * columns - 1, path[path.length - 1]);
+
+    maze.close();
+    assertThrows(IllegalStateException.class, () -> maze.hasRightWall(0, 0));
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try (PerfectMaze parallel =
+             new PerfectMazeGenerator(1000, 37, StorageBackend.OFF_HEAP).createParallel(pool)) {
+      assertTrue(testConnectivity(parallel));
+      assertTrue(testNoCycles(parallel));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  void isPerfectParallel() {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (int columns : new int[] {2, 37, 64, 129}) {
+        PerfectMazeGenerator mazeGenerator =
+            new PerfectMazeGenerator(1000, columns, StorageBackend.LARGE);
+        PerfectMaze maze = mazeGenerator.createParallel(pool);
+        assertTrue(testConnectivity(maze));
+        assertTrue(testNoCycles(maze));
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  void sameSeedSameMaze() {
+    ForkJoinPool pool = new ForkJoinPool(3);
+    try {
+      PerfectMaze first = new PerfectMazeGenerator(300, 40, StorageBackend.LARGE, 7).create();
+      PerfectMaze second = new PerfectMazeGenerator(300, 40, StorageBackend.LARGE, 7).create();
+      PerfectMaze firstParallel =
+          new PerfectMazeGenerator(300, 40, StorageBackend.LARGE, 7).createParallel(pool);
+      PerfectMaze secondParallel =
+          new PerfectMazeGenerator(300, 40, StorageBackend.LARGE, 7).createParallel(pool);
+
+      for (int i = 0; i < 300; i++) {
+        for (int j = 0; j < 40; j++) {
+          assertEquals(first.getWalls(i, j), second.getWalls(i, j));
+          assertEquals(firstParallel.getWalls(i, j), secondParallel.getWalls(i, j));
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  void sameSeedSameMazeOnAnyPool() {
+    ForkJoinPool small = new ForkJoinPool(2);
+    ForkJoinPool large = new ForkJoinPool(8);
+    try {
+      PerfectMaze first =
+          new PerfectMazeGenerator(1000, 40, StorageBackend.LARGE, 11).createParallel(small);
+      PerfectMaze second =
+          new PerfectMazeGenerator(1000, 40, StorageBackend.LARGE, 11).createParallel(large);
+
+      for (int i = 0; i < 1000; i++) {
+        for (int j = 0; j < 40; j++) {
+          assertEquals(first.getWalls(i, j), second.getWalls(i, j));
+        }
+      }
+    } finally {
+      small.shutdown();
+      large.shutdown();
+    }
+  }
+
+  @Test
+  void streamedRowsFormPerfectMaze() {
+    int rows = 40, columns = 45;
+    int[][] rightWallsMatrix = new int[rows][columns];
+    int[][] bottomWallsMatrix = new int[rows][columns];
+
+    new PerfectMazeGenerator(rows, columns).generate((row, mazeRow) -> {
+      for (int j = 0; j < columns; j++) {
+        rightWallsMatrix[row][j] = mazeRow[j] & Constants.RIGHT_WALL;
+        bottomWallsMatrix[row][j] = (mazeRow[j] & Constants.BOTTOM_WALL) >> 1;
+      }
+    });
+
+    PerfectMaze maze = new PerfectMaze(rows, columns, rightWallsMatrix, bottomWallsMatrix);
+    assertTrue(testConnectivity(maze));
+    assertTrue(testNoCycles(maze));
+  }
+
+  @Test
+  void tiledBackendNeedsFileStorage() {
+    PerfectMazeGenerator generator = new PerfectMazeGenerator(100, 100, StorageBackend.TILED);
+    assertThrows(IllegalArgumentException.class, generator::create);
+    assertThrows(IllegalArgumentException.class, generator::createParallel);
+    for (GenerationAlgorithm algorithm : GenerationAlgorithm.values()) {
+      assertThrows(IllegalArgumentException.class,
+          () -> algorithm.create(100, 100, StorageBackend.TILED, 1).create());
+    }
+  }
+
+  @Test
+  void tiledWallsPageThroughSmallCache(@TempDir Path tempDir) throws IOException {
+    int rows = 150, columns = 130, side = 16;
+    long tileBytes = side * side / 4;
+    PerfectMaze expected =
+        new PerfectMazeGenerator(rows, columns, StorageBackend.LARGE, 5).create();
+    Path file = tempDir.resolve("maze.mzt");
+
+    try (TiledWalls walls = TiledMazeFormat.create(file, rows, columns, side, 12 * tileBytes)) {
+      new PerfectMazeGenerator(rows, columns, StorageBackend.TILED, 5).create(walls);
+      assertTrue(walls.getCachedTiles() <= 12);
+    }
+
+    try (TiledWalls walls = TiledMazeFormat.open(file, 4 * tileBytes, false)) {
+      PerfectMaze maze = new PerfectMaze(walls.getRows(), walls.getColumns(), walls);
+      assertTrue(maze.isPaged());
+      for (int i = 0; i < rows; i++) {
+        for (int j = 0; j < columns; j++) {
+          assertEquals(expected.getWalls(i, j), maze.getWalls(i, j));
+        }
+      }
+      assertTrue(walls.getCachedTiles() <= 4);
+
+      Point start = new Point(0, 0), end = new Point(columns - 1, rows - 1);
+      assertEquals(new PerfectMazeDFS(expected).findPath(start, end),
+          new PerfectMazeDFS(maze).findPath(start, end));
+      assertThrows(UnsupportedOperationException.class, () -> walls.setWalls(0, 0));
+    }
+  }
+
+  @Test
+  void allAlgorithmsArePerfect() {
+    int[][] sizes = {{2, 2}, {2, 31}, {33, 2}, {50, 50}, {37, 64}, {120, 17}};
+    for (GenerationAlgorithm algorithm : GenerationAlgorithm.values()) {
+      for (int[] size : sizes) {
+        for (int i = 0; i < 20; i++) {
+          PerfectMaze maze =
+              algorithm.create(size[0], size[1], StorageBackend.LARGE, i).create();
+          assertTrue(testConnectivity(maze), algorithm + " " + size[0] + "x" + size[1]);
+          assertTrue(testNoCycles(maze), algorithm + " " + size[0] + "x" + size[1]);
+        }
+      }
+
+      // тот же seed - тот же лабиринт в любом хранилище, внешние стены на месте
+      MazeGenerator generator = algorithm.create(300, 301, StorageBackend.LARGE, 11);
+      PerfectMaze maze = generator.create();
+      assertTrue(testConnectivity(maze), algorithm.toString());
+      assertTrue(testNoCycles(maze), algorithm.toString());
+      try (PerfectMaze offHeap =
+               algorithm.create(300, 301, StorageBackend.OFF_HEAP, 11).create()) {
+        assertTrue(sameWalls(maze, offHeap), algorithm.toString());
+      }
+      for (int row = 0; row < 300; row++) {
+        assertTrue(maze.hasRightWall(row, 300));
+      }
+      for (int column = 0; column < 301; column++) {
+        assertTrue(maze.hasBottomWall(299, column));
+      }
+      // хранилище с прежним содержимым перезаписывается
+      PackedWalls dirty = new PackedWalls(300 * 301);
+      for (long cell = 0; cell < dirty.getCells(); cell += 3) {
+        dirty.setWalls(cell, Constants.RIGHT_BOTTOM_WALLS);
+      }
+      PerfectMaze reused = generator.create(dirty);
+      assertTrue(testConnectivity(reused), algorithm.toString());
+      assertTrue(testNoCycles(reused), algorithm.toString());
+    }
+  }
+
+  @Test
+  void backendSizeRules() {
+    assertThrows(
+        ArrayIndexOutOfBoundsException.class, () -> new PerfectMazeGenerator(51, 10));
+    assertTrue(StorageBackend.LARGE.fits(100_000, 100_000));
+    assertFalse(StorageBackend.STANDARD.fits(100_000, 100_000));
+    assertFalse(StorageBackend.LARGE.fits(Integer.MAX_VALUE, Integer.MAX_VALUE));
+  }
+
   @Test
   void boundsThrows() {
     assertThrows(ArrayIndexOutOfBoundsException.class, () -> new PerfectMazeGenerator(0, 0));
@@ -90,4 +410,14 @@ public class PerfectMazeTests {
     // Должно быть ровно (rows * columns - 1) проходов
     return passageCount == (rows * columns - 1);
   }
+
+  private static boolean sameWalls(PerfectMaze expected, PerfectMaze actual) {
+    for (int i = 0; i < expected.getRows(); i++) {
+      for (int j = 0; j < expected.getColumns(); j++) {
+        if (expected.getWalls(i, j) != actual.getWalls(i, j))
+          return false;
+      }
+    }
+    return true;
+  }
 }
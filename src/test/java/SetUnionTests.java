@@ -0,0 +1,59 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import domain.structures.SetUnion;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class SetUnionTests {
+  @Test
+  void matchesLinearRelabeling() {
+    Random random = new Random(42);
+
+    for (int size : new int[] {2, 3, 10, 57}) {
+      SetUnion setUnion = new SetUnion(size);
+      long[] reference = new long[size];
+      long biggestSetNumber = size - 1;
+      for (int i = 0; i < size; i++) {
+        reference[i] = i;
+      }
+
+      for (int step = 0; step < 20_000; step++) {
+        int value = random.nextInt(size);
+        if (random.nextBoolean() && value < size - 1) {
+          setUnion.union(value, value + 1);
+          long oldId = reference[value + 1];
+          for (int i = 0; i < size; i++) {
+            if (reference[i] == oldId)
+              reference[i] = reference[value];
+          }
+        } else {
+          setUnion.disunion(value);
+          reference[value] = ++biggestSetNumber;
+        }
+        assertSameSets(setUnion, reference);
+      }
+    }
+  }
+
+  @Test
+  void boundsThrows() {
+    SetUnion setUnion = new SetUnion(5);
+    assertThrows(ArrayIndexOutOfBoundsException.class, () -> setUnion.union(4, 5));
+    assertThrows(ArrayIndexOutOfBoundsException.class, () -> setUnion.disunion(-1));
+    assertThrows(ArrayIndexOutOfBoundsException.class, () -> new SetUnion(1));
+  }
+
+  private void assertSameSets(SetUnion setUnion, long[] reference) {
+    int size = reference.length;
+    for (int i = 0; i < size; i++) {
+      boolean isAlone = (i == 0 || reference[i] != reference[i - 1])
+          && (i == size - 1 || reference[i] != reference[i + 1]);
+      boolean isLast = i == size - 1 || reference[i] != reference[i + 1];
+      assertEquals(isAlone, setUnion.isAlone(i));
+      assertEquals(isLast, setUnion.isLastInSet(i));
+      for (int j = 0; j < size; j++) {
+        assertEquals(reference[i] == reference[j], setUnion.areConnected(i, j));
+      }
+    }
+  }
+}